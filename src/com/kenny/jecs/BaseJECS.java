@@ -6,6 +6,9 @@ import static java.lang.annotation.RetentionPolicy.*;
 import java.lang.annotation.Documented;
 import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Parameter;
@@ -15,25 +18,59 @@ import java.lang.reflect.ParameterizedType;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.security.ProtectionDomain;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.RandomAccess;
+import java.util.Spliterator;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntConsumer;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import java.util.Map.Entry;
 
+import com.kenny.jecs.collection.ArchetypeStorage;
+import com.kenny.jecs.collection.ChangeTicks;
+import com.kenny.jecs.collection.IdentitySlotMap;
+import com.kenny.jecs.collection.RadixSort;
+import com.kenny.jecs.collection.ComponentMasks;
+import com.kenny.jecs.collection.ComponentPool;
+import com.kenny.jecs.collection.ComponentStorage;
 import com.kenny.jecs.collection.ComponentSequence;
 import com.kenny.jecs.collection.ComponentSequenceImpl;
+import com.kenny.jecs.collection.EntitySet;
+import com.kenny.jecs.collection.IndexSpliterator;
+import com.kenny.jecs.collection.IntEntitySet;
+import com.kenny.jecs.collection.LongEntitySet;
+import com.kenny.jecs.collection.OffHeapPool;
+import com.kenny.jecs.collection.PoolStorage;
 import com.kenny.jecs.collection.Pair;
 import com.kenny.jecs.collection.RawPair;
 import com.kenny.jecs.collection.ReversedIterator;
 import com.kenny.jecs.collection.ReversedIteratorList;
+import com.kenny.jecs.collection.SlotSet;
 import com.kenny.jecs.funcs.Create;
 import com.kenny.jecs.funcs.ICreate;
 import com.kenny.jecs.funcs.Destroy;
@@ -44,8 +81,12 @@ import com.kenny.jecs.funcs.IEachC;
 import com.kenny.jecs.funcs.EachE;
 import com.kenny.jecs.funcs.IEachE;
 import com.kenny.jecs.funcs.IEach;
+import com.kenny.jecs.funcs.IIntEach;
+import com.kenny.jecs.funcs.IIntEachC;
+import com.kenny.jecs.funcs.IIntEachE;
 import com.kenny.jecs.funcs.Patch;
 import com.kenny.jecs.funcs.IPatch;
+import com.kenny.jecs.funcs.ISignal;
 import com.kenny.jecs.funcs.Sort;
 import com.kenny.jecs.funcs.SortC;
 import com.kenny.jecs.funcs.ISort;
@@ -111,7 +152,179 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	public static final class JECS extends BaseJECS<Integer, Object> {
 		protected JECS(Class<Integer> entityType) {
 			super(entityType);
-		}	
+		}
+		
+		protected JECS(Class<Integer> entityType, StorageMode storageMode) {
+			super(entityType, storageMode);
+		}
+
+		/**
+		 * Primitive version of {@link #create()}, creates new entity identifier without boxing it.
+		 *
+		 * @return A valid entity identifier.
+		 */
+		@JECSApi(since = "0.2.0")
+		public final int createInt() {
+			int entity = (int) create0();
+			entityCount++;
+			return entity;
+		}
+
+		/**
+		 * Primitive version of {@link #contains(Number)}.
+		 *
+		 * @return True if entity exist in the system.
+		 */
+		@JECSApi(since = "0.2.0")
+		public final boolean contains(int entity) {
+			return entities.slot(entity) != -1;
+		}
+
+		/**
+		 * Primitive version of {@link #destroy(Number)}, destroy <code>entity</code> associated with all
+		 * components without boxing it.
+		 *
+		 * @return If entity success destroyed, return -1.
+		 *
+		 * @throws JECSException if try to destory unexisting or unvalid entity.
+		 */
+		@JECSApi(since = "0.2.0")
+		public final int destroy(int entity) throws JECSException {
+			if(!Context.ctxRelease && entity == -1)
+				throw new JECSException("Cannot to remove unvalid entity.");
+			destroy0(entity);
+			return -1;
+		}
+
+		/**
+		 * Returns an iterator over entities of this system, which doesn't box the identifiers.
+		 */
+		@JECSApi(since = "0.2.0")
+		public final PrimitiveIterator.OfInt intIterator() {
+			final IntEntitySet entities = (IntEntitySet) this.entities;
+			return new PrimitiveIterator.OfInt() {
+				int index = 0;
+
+				@Override
+				public boolean hasNext() {
+					return index < entities.size();
+				}
+
+				@Override
+				public int nextInt() {
+					if(index >= entities.size())
+						throw new NoSuchElementException();
+					return entities.getInt(index++);
+				}
+			};
+		}
+
+		/**
+		 * Returns a stream of entities of this system, which doesn't box the identifiers. See 
+		 * {@link #entityStream()}.
+		 */
+		@JECSApi(since = "0.2.0")
+		public final IntStream intStream() {
+			final IntEntitySet entities = (IntEntitySet) this.entities;
+			return StreamSupport.intStream(new IndexSpliterator.OfInt(entities::getInt, 0, entities.size(), 
+				Spliterator.DISTINCT), false);
+		}
+		
+		/**
+		 * Primitive version of {@link #each(Class, IEach)}, entity is passed as <code>int</code> and 
+		 * <code>funcImpl</code> is called directly, so nothing is allocated per entity.
+		 * 
+		 * @param <C> Component type.
+		 * @param componentT - Component as super-component.
+		 * @param funcImpl - {@link IIntEach} function interface, or lambda expression.
+		 */
+		@SuppressWarnings("unchecked")
+		@JECSApi(since = "0.2.0", funcDesc = "each for all entities with c & sub-c")
+		public <C> void eachInt(Class<C> componentT, IIntEach<C> funcImpl) {
+			iterate(() -> {
+				final IntEntitySet entities = (IntEntitySet) this.entities;
+				OffHeapPool<Object> offHeapComponents = offHeapOf(ComponentType.id(componentT));
+				if(offHeapComponents != null) {
+					if(offHeapComponents.isEmpty())
+						return;
+				
+					// Like each(Class, IEach), one instance is reused and written back after the callback.
+					C component = (C) offHeapComponents.get(offHeapComponents.slot(0));
+					for(int index = 0; index < offHeapComponents.size(); index++) {
+						int slot = offHeapComponents.slot(index);
+						offHeapComponents.read(index, component);
+						funcImpl.invoke((int) entities.id(slot), component);
+						if(index < offHeapComponents.size() && offHeapComponents.slot(index) == slot)
+							offHeapComponents.store(index, component);
+					}
+					return;
+				}
+			
+				int[] types = subtypes(componentT);
+				eachSubtype(0, entities.size(), ComponentMasks.mask(types), offHeapPools(types), 
+					(slot, component) -> funcImpl.invoke((int) entities.id(slot), (C) component));
+			});
+		}
+		
+		/**
+		 * Primitive version of {@link #each(IEachC)}, entity is passed as <code>int</code> and 
+		 * <code>funcImpl</code> is called directly, so nothing is allocated per entity.
+		 * 
+		 * @param funcImpl - {@link IIntEachC} function interface, or lambda expression.
+		 */
+		@SuppressWarnings("unchecked")
+		@JECSApi(since = "0.2.0", funcDesc = "each for all entities with any c")
+		public <C> void eachInt(IIntEachC<C> funcImpl) {
+			iterate(() -> {
+				final IntEntitySet entities = (IntEntitySet) this.entities;
+				for(int index = 0; index < entities.size(); index++) {
+					ComponentSequence<Object> components = container[entities.slotAt(index)];
+					if(components == null || components.isEmpty())
+						continue;
+				
+					int entity = entities.getInt(index);
+					for(int componentIndex = 0; componentIndex < components.size(); componentIndex++) {
+						Object component = components.get(componentIndex);
+						if(component != null)
+							funcImpl.invoke(entity, (C) component);
+					}
+				}
+			});
+		}
+		
+		/**
+		 * Primitive version of {@link #each(IEachE)}, entity is passed as <code>int</code> and 
+		 * <code>funcImpl</code> is called directly, so nothing is allocated per entity.
+		 * 
+		 * @param funcImpl - {@link IIntEachE} function interface, or lambda expression.
+		 */
+		@JECSApi(since = "0.2.0", funcDesc = "iterate over each entity")
+		public void eachInt(IIntEachE funcImpl) {
+			final IntEntitySet entities = (IntEntitySet) this.entities;
+			for(int index = 0; index < entities.size(); index++)
+				funcImpl.invoke(entities.getInt(index));
+		}
+		
+		/**
+		 * Primitive version of {@link #sort(ISort, SortStrategy)}, entities are passed to <code>compare</code> as 
+		 * <code>int</code>. With {@link SortStrategy#ADAPTIVE} container that is already or almost sorted is sorted 
+		 * in place without allocation, the full sort boxes the identifiers like {@link #sort(ISort)} does.
+		 * <p>
+		 * Example:
+		 * <pre>
+		 * system.sortInt((a, b) -> Integer.compare(a, b), SortStrategy.ADAPTIVE);
+		 * </pre>
+		 * 
+		 * @param compare - Comparator of entities.
+		 * @param strategy - Sort strategy.
+		 */
+		@JECSApi(since = "0.2.0", funcDesc = "sort entities by value")
+		public void sortInt(IntBinaryOperator compare, SortStrategy strategy) {
+			if(strategy == SortStrategy.ADAPTIVE && 
+					insertionSort((a, b) -> compare.applyAsInt((int) entities.id(a), (int) entities.id(b))))
+				return;
+			sort((ISort<Integer>) (a, b) -> compare.applyAsInt(a, b));
+		}
 	}
 	
 	/**
@@ -124,6 +337,10 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 		protected JECSGeneric(Class<EntityT> entityType) {
 			super(entityType);
 		}
+		
+		protected JECSGeneric(Class<EntityT> entityType, StorageMode storageMode) {
+			super(entityType, storageMode);
+		}
 	}
 	
 	/**
@@ -149,6 +366,22 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	@Documented
 	static @interface BetaFeature {}
 	
+	/**
+	 * Marks component class whose components are stored off-heap as struct-of-arrays in {@link OffHeapPool},
+	 * one column per field, instead of being kept as objects. All instance fields of class should be primitive
+	 * and class should have a constructor without arguments.
+	 * <p>
+	 * Component passed to <code>emplace</code> is copied into the columns and is not kept, <code>get</code> 
+	 * returns a new copy, so changes are visible only after {@link BaseJECS#replace(Number, Object)}. 
+	 * {@link BaseJECS#each(Class, IEach)} writes changes back automatically. Off-heap components are not part 
+	 * of the sequence of components of entity, for linear scans use the pool from {@link BaseJECS#offHeap(Class)}.
+	 */
+	@JECSApi(since = "0.2.0")
+	@Retention(RUNTIME)
+	@Target(TYPE)
+	@Documented
+	public static @interface OffHeap {}
+	
 	/**
 	 * This is {@link Reflect} class to help with Java Reflection Framework. Its contains
 	 * kinda of utility class for sorting, constructing and short writing Reflection methods.
@@ -289,6 +522,274 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	    }
 	}
 	
+	/**
+	 * Registry of component types. Each component class gets a dense integer identifier the first time it is 
+	 * used by any system, and this identifier never changes during the lifetime of the class. All lookups,
+	 * pools, groups, views and packs use identifiers instead of comparing class names.
+	 * <p>
+	 * Identifiers are cached with {@link ClassValue}, so resolving identifier of a class is a single 
+	 * lookup without locking after the first use.
+	 */
+	@JECSApi(since = "0.2.0")
+	public static final class ComponentType
+	{
+		/**Registered classes, where index is the identifier of component type.*/
+		private static Class<?>[] types = new Class<?>[64];
+		/**Number of registered component types.*/
+		private static int count = 0;
+		
+		private static final ClassValue<Integer> ids = new ClassValue<Integer>() {
+			@Override
+			protected Integer computeValue(Class<?> type) {
+				return register(type);
+			}
+		};
+		
+		private ComponentType() {}
+		
+		/**
+		 * Assign next identifier to <code>type</code>, or return already assigned one if 
+		 * two threads compute the same class at the same time.
+		 */
+		private static synchronized int register(Class<?> type) {
+			for(int i = 0; i < count; i++)
+				if(types[i] == type)
+					return i;
+			
+			if(count == types.length)
+				types = Arrays.copyOf(types, count << 1);
+			types[count] = type;
+			return count++;
+		}
+		
+		/**
+		 * Return the identifier of component type, assigns new one on first use.
+		 * 
+		 * @param type - Component class.
+		 */
+		@JECSApi(since = "0.2.0")
+		public static int id(Class<?> type) {
+			return ids.get(type);
+		}
+		
+		/**
+		 * Return identifiers of component types, in the same order.
+		 * 
+		 * @param types - Component classes.
+		 */
+		@JECSApi(since = "0.2.0")
+		public static int[] ids(Class<?>... types) {
+			int[] result = new int[types.length];
+			for(int i = 0; i < types.length; i++)
+				result[i] = id(types[i]);
+			return result;
+		}
+		
+		/**
+		 * Return component class by its identifier.
+		 * 
+		 * @param id - Identifier of component type.
+		 */
+		@JECSApi(since = "0.2.0")
+		public static synchronized Class<?> type(int id) {
+			return types[id];
+		}
+		
+		/**
+		 * Return number of registered component types.
+		 */
+		@JECSApi(since = "0.2.0")
+		public static synchronized int count() {
+			return count;
+		}
+	}
+	
+	/**
+	 * Constructor of component resolved for one signature of arguments (classes of passed arguments). 
+	 * Resolving the constructor by reflection is done once per component class and signature, after that
+	 * {@link BaseJECS#emplace(Number, Class, Object...)} and {@link BaseJECS#replace(Number, Class, Object...)}
+	 * invoke cached {@link MethodHandle}s only.
+	 */
+	@JECSApi(since = "0.2.0")
+	static final class ComponentFactory
+	{
+		/**Resolved factories of each component class by signature of arguments.*/
+		private static final ClassValue<Map<List<Class<?>>, ComponentFactory>> factories = 
+				new ClassValue<Map<List<Class<?>>, ComponentFactory>>() {
+			@Override
+			protected Map<List<Class<?>>, ComponentFactory> computeValue(Class<?> type) {
+				return new ConcurrentHashMap<List<Class<?>>, ComponentFactory>();
+			}
+		};
+		
+		/**Constructor that accepts all arguments as one array and returns Object.*/
+		private final MethodHandle ctor;
+		/**Constructors of enclosing classes from top to the last one, null if class is not inner.*/
+		private final MethodHandle[] outers;
+		/**True if passed arguments are {@link NullArgs} and should not be passed to constructor.*/
+		private final boolean nullArgs;
+		
+		private ComponentFactory(Constructor<?> ctor, Class<?> enclosing, boolean nullArgs) 
+				throws IllegalAccessException, ClassNotFoundException {
+			ctor.setAccessible(true);
+			this.ctor = MethodHandles.lookup().unreflectConstructor(ctor)
+					.asSpreader(Object[].class, ctor.getParameterCount())
+					.asType(MethodType.methodType(Object.class, Object[].class));
+			this.outers = enclosing != null ? outers(enclosing) : null;
+			this.nullArgs = nullArgs;
+		}
+		
+		/**
+		 * Return the signature of arguments, used as key of factory.
+		 */
+		static List<Class<?>> signature(Object[] args, boolean nullArgs) {
+			if(nullArgs)
+				return List.of();
+			
+			Class<?>[] types = new Class<?>[args.length];
+			for(int i = 0; i < args.length; i++)
+				types[i] = args[i] != null ? args[i].getClass() : null;
+			return Arrays.asList(types);
+		}
+		
+		/**
+		 * Return the factory of <code>type</code> for <code>signature</code>, or null if it wasn't resolved yet.
+		 */
+		static ComponentFactory get(Class<?> type, List<Class<?>> signature) {
+			return factories.get(type).get(signature);
+		}
+		
+		/**
+		 * Create and cache the factory of <code>type</code> for <code>signature</code>.
+		 * 
+		 * @param ctor - Resolved constructor of component.
+		 * @param enclosing - Enclosing class if component is non-static inner class, otherwise null.
+		 * @param nullArgs - True if arguments are {@link NullArgs}.
+		 */
+		static ComponentFactory put(Class<?> type, List<Class<?>> signature, Constructor<?> ctor, Class<?> enclosing, 
+				boolean nullArgs) throws IllegalAccessException, ClassNotFoundException {
+			ComponentFactory factory = new ComponentFactory(ctor, enclosing, nullArgs);
+			factories.get(type).put(signature, factory);
+			return factory;
+		}
+		
+		/**
+		 * Construct new component from <code>args</code>. If component is inner class, new instances of all
+		 * enclosing classes are created first, from top to the last one.
+		 * 
+		 * @throws InvocationTargetException if constructor throws.
+		 */
+		Object newInstance(Object[] args) throws InvocationTargetException {
+			try {
+				Object[] arguments = nullArgs ? new Object[0] : args;
+				if(outers != null) {
+					Object outer = outers[0].invoke();
+					for(int i = 1; i < outers.length; i++)
+						outer = outers[i].invoke(outer);
+					
+					arguments = new Object[arguments.length + 1];
+					arguments[0] = outer;
+					if(!nullArgs)
+						System.arraycopy(args, 0, arguments, 1, args.length);
+				}
+				return ctor.invokeExact(arguments);
+			} catch (Throwable e) {
+				throw new InvocationTargetException(e);
+			}
+		}
+		
+		/**
+		 * Resolve constructors of enclosing classes of inner class. The first one is the top class with default
+		 * constructor and each next accepts the instance of previous one.
+		 */
+		private static MethodHandle[] outers(Class<?> enclosing) throws IllegalAccessException, ClassNotFoundException {
+			// Split main full inner class name to each sub-inner classes.
+			String[] innerClassesNames = enclosing.getName().split("\\$");
+			MethodHandle[] outers = new MethodHandle[innerClassesNames.length];
+			String name = innerClassesNames[0];
+			for(int i = 0; i < innerClassesNames.length; i++) {
+				if(i != 0)
+					name += "$" + innerClassesNames[i];
+				Constructor<?> innerCtor = Class.forName(name).getDeclaredConstructors()[0];
+				innerCtor.setAccessible(true);
+				outers[i] = MethodHandles.lookup().unreflectConstructor(innerCtor).asType(i == 0 ? 
+						MethodType.methodType(Object.class) : MethodType.methodType(Object.class, Object.class));
+			}
+			return outers;
+		}
+	}
+	
+	/**
+	 * Cache of methods of components called by name, used by {@link BaseJECS#invoke(Number, Class, String, Object...)}
+	 * and similar methods. Method is resolved by reflection once per component class, name and signature of
+	 * arguments, after that only the cached {@link MethodHandle} is invoked.
+	 */
+	@JECSApi(since = "0.2.0")
+	static final class ComponentMethods
+	{
+		/**Public methods (including inherited) of each class by name and signature of arguments.*/
+		private static final ClassValue<Map<List<Object>, MethodHandle>> methods = newCache();
+		/**Declared methods of each class by name and signature of arguments.*/
+		private static final ClassValue<Map<List<Object>, MethodHandle>> declaredMethods = newCache();
+		
+		private ComponentMethods() {}
+		
+		private static ClassValue<Map<List<Object>, MethodHandle>> newCache() {
+			return new ClassValue<Map<List<Object>, MethodHandle>>() {
+				@Override
+				protected Map<List<Object>, MethodHandle> computeValue(Class<?> type) {
+					return new ConcurrentHashMap<List<Object>, MethodHandle>();
+				}
+			};
+		}
+		
+		/**
+		 * Return the method of <code>type</code> with <code>name</code> that accepts <code>args</code>. Handle 
+		 * accepts the component and all arguments as one array.
+		 * 
+		 * @param declared - If true searches declared methods of class only, otherwise public methods including
+		 * inherited ones.
+		 */
+		static MethodHandle get(Class<?> type, String name, Object[] args, boolean declared) 
+				throws NoSuchMethodException, IllegalAccessException {
+			// Key is the name followed by classes of arguments.
+			Object[] key = new Object[args.length + 1];
+			key[0] = name;
+			for(int i = 0; i < args.length; i++)
+				key[i + 1] = args[i].getClass();
+			
+			Map<List<Object>, MethodHandle> cache = (declared ? declaredMethods : methods).get(type);
+			List<Object> signature = Arrays.asList(key);
+			MethodHandle handle = cache.get(signature);
+			if(handle == null) {
+				Class<?>[] funcArgsTypes = new Class<?>[args.length]; 
+				for(int t = 0; t < args.length; t++) 
+					funcArgsTypes[t] = sortR(args[t].getClass().getTypeName(), args[t].getClass());
+				
+				Method func = declared ? type.getDeclaredMethod(name, funcArgsTypes) : type.getMethod(name, funcArgsTypes);
+				func.setAccessible(true);
+				handle = MethodHandles.lookup().unreflect(func)
+						.asSpreader(Object[].class, args.length)
+						.asType(MethodType.methodType(void.class, Object.class, Object[].class));
+				cache.put(signature, handle);
+			}
+			return handle;
+		}
+		
+		/**
+		 * Invoke the method <code>handle</code> on <code>component</code>.
+		 * 
+		 * @throws InvocationTargetException if method throws.
+		 */
+		static void invoke(MethodHandle handle, Object component, Object[] args) throws InvocationTargetException {
+			try {
+				handle.invokeExact(component, args);
+			} catch (Throwable e) {
+				throw new InvocationTargetException(e);
+			}
+		}
+	}
+	
 	/**
 	 * This class controls and is responsible for the current context of the JECS used. It 
 	 * contains detailed information about the system, and we don't recommend changing the 
@@ -314,6 +815,16 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 			return (JECS) (instance = new JECS(Integer.class));
 		}
 		
+		/**
+		 * Instantiate new system instance with given storage of components.
+		 */
+		@JECSApi(since = "0.2.0")
+		static JECS newInstance(StorageMode storageMode) {
+			BaseJECS<?, ?> instance = null;
+			systems.add(instance);
+			return (JECS) (instance = new JECS(Integer.class, storageMode));
+		}
+		
 		/**
 		 * Instantiate new generic system instance.
 		 */
@@ -326,6 +837,18 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 			return (JECSGeneric<EntityT>) (instance = new JECSGeneric<EntityT>(entityType));
 		}
 		
+		/**
+		 * Instantiate new generic system instance with given storage of components.
+		 */
+		@SuppressWarnings("unchecked")
+		@JECSApi(since = "0.2.0")
+		static <EntityT extends Number> JECSGeneric<EntityT>
+			newInstance(Class<EntityT> entityType, StorageMode storageMode) {
+			BaseJECS<?, ?> instance = null;
+			systems.add(instance);
+			return (JECSGeneric<EntityT>) (instance = new JECSGeneric<EntityT>(entityType, storageMode));
+		}
+		
 		/**
 		 * Delete system instance.
 		 */
@@ -346,9 +869,13 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 			return systems.get(index);
 		}
 		
-		/**If {@link #randomEntityGenerator} if enabled then will runs random generator of valid entities, otherwise basic 
-		 * increment generator.*/
+		/**If {@link #randomEntityGenerator} if enabled then each new entity index starts from random version, otherwise
+		 * from zero and identifiers are incremental.*/
 		public boolean ctxRandomEntityGenerator = true;
+		/**Number of low bits of entity identifier used by entity index, the rest bits (except sign) are used by version.*/
+		public int     ctxIndexBitsInt64 = 32;
+		public int     ctxIndexBitsInt32 = 22;
+		public int     ctxIndexBitsInt16 = 12;
 		/**Max count of entities available by this handle.*/
 		public long    ctxMaxEntitiesInt64 = Long.MAX_VALUE - 1;
 		public int     ctxMaxEntitiesInt32 = Integer.MAX_VALUE - 1;
@@ -359,10 +886,52 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 		public int     ctxDefaultPackCapacity = 1;
 		/**If true, then {@link JECSException} would'nt throws with validation error msg if need.*/
 		public boolean ctxDisableExceptionMessages = false;
+		/**Storage of components chosen when the system was constructed, see {@link StorageMode}.*/
+		public StorageMode ctxStorageMode = StorageMode.POOLS;
 		/*True its enable optimization.*/
 		public static boolean ctxRelease = false;
 	}
 	
+	/**
+	 * Layout of components in memory, chosen once when the system is constructed by 
+	 * {@link BaseJECS#construct(StorageMode)} or {@link BaseJECS#construct(Class, StorageMode)}.
+	 */
+	@JECSApi(since = "0.2.0")
+	public static enum StorageMode {
+		/**
+		 * Each component type is stored in its own sparse set pool. Adding and removing components is cheap
+		 * and doesn't touch other components of entity. This is default mode.
+		 */
+		POOLS,
+		/**
+		 * Entities with the same set of component types are stored together in one table (archetype), 
+		 * each type is a column. Adding or removing a component moves the entity to other table, but 
+		 * {@link BaseJECS#group(Class...)} visits only the matching tables and doesn't check entities one 
+		 * by one. Prefer this mode when the sets of components are mostly stable and queries by many types
+		 * dominates.
+		 */
+		ARCHETYPES
+	}
+	
+	/**
+	 * How {@link BaseJECS#sort(ISort, SortStrategy)} and {@link BaseJECS#sort(Class, ISortC, SortStrategy)} sort 
+	 * the entities container.
+	 */
+	@JECSApi(since = "0.2.0")
+	public static enum SortStrategy {
+		/**
+		 * Entities are copied to an array, sorted by merge sort and written back. Time doesn't depend on the
+		 * existing order. This is default strategy.
+		 */
+		FULL,
+		/**
+		 * Entities are sorted in place by insertion sort, so sorted or almost sorted container is sorted in 
+		 * one pass without copying anything. If insertion sort needs more than a few moves per entity, the
+		 * order is far from sorted and the rest is sorted by {@link #FULL} strategy.
+		 */
+		ADAPTIVE
+	}
+	
 	/**
 	 * This class represents null arguments accepted by {@link BaseJECS#emplace(Number, Class, Object...)} or
 	 * {@link BaseJECS#replace(Number, Class, Object...)} or its one of array versions to call the appropriate 
@@ -522,22 +1091,75 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 		NULL_ENTITY = new BaseJECS.NullEntity<>(null, null); 
 	}
 	
+	/**
+	 * Group of entities that has all given components. Group is registered in the system once per set of 
+	 * component types and then kept up to date by <code>emplace</code>, <code>erase</code> and 
+	 * <code>destroy</code>, so getting it again costs nothing.
+	 */
 	@JECSApi(since = "0.1.8")
 	public static final class Group<EntityT extends Number, Component extends Object> implements Iterable<EntityT> {
 		BaseJECS<EntityT, Component> system;
-		/**Groupped entity by component / components.*/
-		List<EntityT> pool = new ArrayList<>();
+		/**Slots of groupped entities by component / components.*/
+		SlotSet slots = new SlotSet();
+		/**Signature of the group, {@link ComponentType} identifiers of grouped components.*/
+		int[] types = new int[0];
+		/**Mask of signature of the group.*/
+		long[] mask = ComponentMasks.mask(types);
+		/**{@link ComponentType} identifiers of components that grouped entities should not have.*/
+		int[] excludes = new int[0];
+		/**Mask of excluded components.*/
+		long[] exclude = ComponentMasks.mask(excludes);
 		
 		public Group(BaseJECS<EntityT, Component> system) {
 			this.system = system;
 		}
 		
+		Group(BaseJECS<EntityT, Component> system, int[] types, int[] excludes) {
+			this.system = system;
+			this.types = types;
+			this.mask = ComponentMasks.mask(types);
+			this.excludes = excludes;
+			this.exclude = ComponentMasks.mask(excludes);
+		}
+		
+		/**
+		 * Returns the number of entities in the group.
+		 */
+		@JECSApi(since = "0.2.0")
+		public int size() {
+			return slots.size();
+		}
+		
+		/**
+		 * Returns true if the group has no entities.
+		 */
+		@JECSApi(since = "0.2.0")
+		public boolean isEmpty() {
+			return slots.isEmpty();
+		}
+		
+		/**
+		 * Returns true if <code>entity</code> is in the group.
+		 */
+		@JECSApi(since = "0.2.0")
+		public boolean contains(EntityT entity) {
+			return slots.contains(system.slotOf(entity));
+		}
+		
 		/**
 		 * See {@link #BaseJECS.get(Number, Class)}.
 		 */
 		@JECSApi(since = "0.1.9")
 		public <C> C get(EntityT entity, Class<C> componentT) {
-			return system.get(entity, componentT);
+			return componentT.cast(system.get(entity, componentT));
+		}
+		
+		/**
+		 * Optional component. See {@link #BaseJECS.tryGet(Number, Class)}.
+		 */
+		@JECSApi(since = "0.2.0")
+		public <C> C tryGet(EntityT entity, Class<C> componentT) {
+			return componentT.cast(system.tryGet(entity, componentT));
 		}
 		
 		/**
@@ -576,76 +1198,1177 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 			return system.get(entity, a, b, c, d);
 		}
 		
-
-		@Override
-		public Iterator<EntityT> iterator() {
-			return pool.iterator();
+		/**
+		 * Returns a stream of entities of the group, see {@link #BaseJECS.entityStream()}.
+		 */
+		@JECSApi(since = "0.2.0")
+		public Stream<EntityT> stream() {
+			return system.stream(slots);
 		}
 		
-	}
-	
-	@JECSApi(since = "0.1.8")
-	public static final class View<EntityT extends Number> implements Iterable<EntityT> {
-		BaseJECS<EntityT, ?> system;
-		List<EntityT> pool = new ArrayList<>();
-		
-		public View(BaseJECS<EntityT, ?> system) {
-			this.system = system;
+		/**
+		 * Calls <code>funcImpl</code> for entities of the group in parallel on the common {@link ForkJoinPool}. See 
+		 * {@link #BaseJECS.parallelEach(Class, IEach)} for restrictions of callback.
+		 */
+		@JECSApi(since = "0.2.0")
+		public void parallelEach(IEachE<EntityT> funcImpl) {
+			system.parallelEach(slots, funcImpl, ForkJoinPool.commonPool());
 		}
 		
 		/**
-		 * See {@link #BaseJECS.get(Number, Class)}.
+		 * Calls <code>funcImpl</code> for entities of the group in parallel on the given <code>executor</code>.
 		 */
-		@JECSApi(since = "0.1.9")
-		public <C> C get(EntityT entity, Class<C> componentT) {
-			return system.get(entity, componentT);
+		@JECSApi(since = "0.2.0")
+		public void parallelEach(IEachE<EntityT> funcImpl, Executor executor) {
+			system.parallelEach(slots, funcImpl, executor);
 		}
-
+		
+		/**
+		 * Iterates from the last entity to the first one, so the current entity can be destroyed or lose its
+		 * component during iteration.
+		 */
 		@Override
 		public Iterator<EntityT> iterator() {
-			return pool.iterator();
+			return system.iterator(slots);
 		}
 	}
 
-	//==========      Entity Identifier      ==============================================
-	private final Class<EntityT>                          entityType;
-	
-	//===========        JECS Handle         ==============================================
-	static  BaseJECS<?, ?>                                instnace    = null;
-	/**Global statistic thing to calculate how many entities were created.*/
-	static  int                                           entityCount = -1;
-	/**This is random entity generator.*/
-	static  ThreadLocalRandom                             randomEngine = null;
-	/**This is non-random entity generator.*/
-	EntityT                                               incrementalEngine;
-	/**Current emplaced entity.*/
-	EntityT                                               currentEmplacedEntity = null;
-	/**Contains information about this handle.*/
-	Context                                               context;
-	
-	//===========  Entities, Pools, Containers ==============================================
-	ArrayList<EntityT>                                    entities;
-	/**Container of entity identifiers and sequence of all components identifiers and his data.*/
-	Map<EntityT, ComponentSequence<Component>>            container;
-	/**Packs of components to store and for better iteration time.*/
-	Map<Integer, ComponentSequence<Component>>            packs;
-	/**Pool store the components each type in different sequence. Pool is efficiently faster then container.*/
-	Map<Class<Component>, List<Pair<EntityT, Component>>> pool;
-	/**Instance of entity group by components.**/
-	Group<EntityT, Component>                             group = new Group<>(this);
-	/**Instance of entity view by components.**/
-	View<EntityT>                                         view = new View<>(this);
-	/**Temparary component array stored by #push and released by #pop.*/
-	Object[]                                              arr = null;
-	/** Global pack index. */
-	int                                                   packIndex = 0;
-	
-	/**Just null is already exist + im love C++.*/
-	@JECSApi
-	private static final Object nullptr(Object o) { return o = null; }
-	
 	/**
-	 * Return generic class parameters of this class.
+	 * Owning group of entities that has all given components. Unlike {@link Group}, owning group takes the
+	 * ownership of the pools of its components and keeps its entities packed at the front of each pool in
+	 * the same order, so entity at position <code>index</code> of the group has its components at the same
+	 * position in all owned pools and iteration reads them as parallel arrays without any lookup.
+	 * <p>
+	 * Pool can be owned only by one owning group. Owning groups are available only with
+	 * {@link StorageMode#POOLS} and without {@link OffHeap} components.
+	 */
+	@JECSApi(since = "0.2.0")
+	public static final class OwningGroup<EntityT extends Number, Component extends Object> implements Iterable<EntityT> {
+		BaseJECS<EntityT, Component> system;
+		/**Signature of the group, {@link ComponentType} identifiers of owned components.*/
+		int[] types;
+		/**Mask of signature of the group.*/
+		long[] mask;
+		/**Owned pools, in the order of types.*/
+		ComponentPool<Component>[] pools;
+		/**Number of grouped entities, they take positions from zero to length in each owned pool.*/
+		int length = 0;
+
+		OwningGroup(BaseJECS<EntityT, Component> system, int[] types, ComponentPool<Component>[] pools) {
+			this.system = system;
+			this.types = types;
+			this.mask = ComponentMasks.mask(types);
+			this.pools = pools;
+		}
+
+		/**
+		 * Returns the number of entities in the group.
+		 */
+		@JECSApi(since = "0.2.0")
+		public int size() {
+			return length;
+		}
+
+		/**
+		 * Returns true if the group has no entities.
+		 */
+		@JECSApi(since = "0.2.0")
+		public boolean isEmpty() {
+			return length == 0;
+		}
+
+		/**
+		 * Returns true if <code>entity</code> is in the group.
+		 */
+		@JECSApi(since = "0.2.0")
+		public boolean contains(EntityT entity) {
+			return has(system.slotOf(entity));
+		}
+
+		/**
+		 * Returns the entity in position <code>index</code> of the group.
+		 */
+		@JECSApi(since = "0.2.0")
+		public EntityT entity(int index) {
+			Objects.checkIndex(index, length);
+			return system.setEntityT(pools[0].entity(index));
+		}
+
+		/**
+		 * Returns the component of entity in position <code>index</code> of the group.
+		 *
+		 * @throws JECSException if the group doesn't own the component type.
+		 */
+		@JECSApi(since = "0.2.0")
+		public <C> C get(int index, Class<C> componentT) {
+			Objects.checkIndex(index, length);
+			return componentT.cast(pools[column(componentT)].component(index));
+		}
+
+		/**
+		 * Returns the owned pool of component type. First {@link #size()} positions of the pool are the
+		 * entities of the group, in the same order as in other owned pools.
+		 * <p>
+		 * Example:
+		 * <code><pre>
+		 * var positions = group.pool(Position.class);
+		 * var velocities = group.pool(Velocity.class);
+		 * for(int i = 0; i < group.size(); i++)
+		 * 	positions.component(i).add(velocities.component(i));
+		 * </code></pre>
+		 *
+		 * @throws JECSException if the group doesn't own the component type.
+		 */
+		@SuppressWarnings("unchecked")
+		@JECSApi(since = "0.2.0")
+		public <C> ComponentPool<C> pool(Class<C> componentT) {
+			return (ComponentPool<C>) pools[column(componentT)];
+		}
+
+		/**
+		 * Returns a stream of entities of the group in group order, see {@link #BaseJECS.entityStream()}.
+		 */
+		@JECSApi(since = "0.2.0")
+		public Stream<EntityT> stream() {
+			return StreamSupport.stream(new IndexSpliterator<EntityT>(index -> system.setEntityT(pools[0].entity(index)), 
+				0, length, Spliterator.NONNULL | Spliterator.DISTINCT), false);
+		}
+		
+		/**
+		 * Calls <code>funcImpl</code> with positions of entities of the group in parallel on the common
+		 * {@link ForkJoinPool}, components of entity are at the same position of owned pools. See 
+		 * {@link #BaseJECS.parallelEach(Class, IEach)} for restrictions of callback.
+		 * <p>
+		 * Example:
+		 * <code><pre>
+		 * var positions = group.pool(Position.class);
+		 * var velocities = group.pool(Velocity.class);
+		 * group.parallelEach(i -> positions.component(i).add(velocities.component(i)));
+		 * </code></pre>
+		 */
+		@JECSApi(since = "0.2.0")
+		public void parallelEach(IntConsumer action) {
+			parallelEach(action, ForkJoinPool.commonPool());
+		}
+		
+		/**
+		 * Calls <code>action</code> with positions of entities of the group in parallel on the given 
+		 * <code>executor</code>.
+		 */
+		@JECSApi(since = "0.2.0")
+		public void parallelEach(IntConsumer action, Executor executor) {
+			parallel(length, executor, (from, to) -> {
+				for(int index = from; index < to; index++)
+					action.accept(index);
+			});
+		}
+		
+		/**
+		 * Iterates from the last entity to the first one, so the current entity can be destroyed or lose its
+		 * component during iteration.
+		 */
+		@Override
+		public Iterator<EntityT> iterator() {
+			return new Iterator<EntityT>() {
+				int index = length;
+
+				@Override
+				public boolean hasNext() {
+					return Math.min(index, length) > 0;
+				}
+
+				@Override
+				public EntityT next() {
+					index = Math.min(index, length) - 1;
+					if(index < 0)
+						throw new NoSuchElementException();
+					return system.setEntityT(pools[0].entity(index));
+				}
+			};
+		}
+
+		/**
+		 * Return the position of owned pool of component type.
+		 */
+		private int column(Class<?> componentT) {
+			int type = ComponentType.id(componentT);
+			for(int i = 0; i < types.length; i++)
+				if(types[i] == type)
+					return i;
+			throw new JECSException("Group doesn't own the component with type <" + componentT.getTypeName() + ">!");
+		}
+
+		/**
+		 * Returns true if entity in <code>slot</code> is in the group.
+		 */
+		boolean has(int slot) {
+			int index = pools[0].index(slot);
+			return index >= 0 && index < length;
+		}
+
+		/**
+		 * Move entity in <code>slot</code>, that has all owned components, to the end of packed range in
+		 * each owned pool.
+		 */
+		void enter(int slot) {
+			for(int i = 0; i < pools.length; i++)
+				pools[i].swap(pools[i].index(slot), length);
+			length++;
+		}
+
+		/**
+		 * Move entity in <code>slot</code> out of packed range in each owned pool, if it's in the group.
+		 */
+		void leave(int slot) {
+			if(!has(slot))
+				return;
+			length--;
+			for(int i = 0; i < pools.length; i++)
+				pools[i].swap(pools[i].index(slot), length);
+		}
+	}
+
+	/**
+	 * Query of entities by components they should have (<code>with</code>), should not have 
+	 * (<code>without</code>) and may have (<code>optional</code>). Required and excluded components are 
+	 * evaluated against storage when the query is resolved to its {@link Group}, so the entities with excluded
+	 * components are never visited. Optional components doesn't filter entities, they are only read by 
+	 * {@link #get(Number, Class)} that returns null if entity doesn't have them.
+	 * <p>
+	 * Query itself is just a description, the group behind it is registered in the system once per set of 
+	 * required and excluded components and kept up to date like other groups.
+	 */
+	@JECSApi(since = "0.2.0")
+	public static final class Query<EntityT extends Number, Component extends Object> implements Iterable<EntityT> {
+		BaseJECS<EntityT, Component> system;
+		/**{@link ComponentType} identifiers of required components.*/
+		int[] with = new int[0];
+		/**{@link ComponentType} identifiers of excluded components.*/
+		int[] without = new int[0];
+		/**{@link ComponentType} identifiers of optional components.*/
+		int[] optional = new int[0];
+		/**Compiled plan of this query, null until the query is iterated or changed after that.*/
+		Plan<EntityT, Component> plan;
+		
+		Query(BaseJECS<EntityT, Component> system) {
+			this.system = system;
+		}
+		
+		/**
+		 * Entities should have all of given components.
+		 */
+		@JECSApi(since = "0.2.0")
+		public Query<EntityT, Component> with(Class<?>... components) {
+			with = concat(with, ComponentType.ids(components));
+			plan = null;
+			return this;
+		}
+		
+		/**
+		 * Entities should not have any of given components.
+		 */
+		@JECSApi(since = "0.2.0")
+		public Query<EntityT, Component> without(Class<?>... components) {
+			without = concat(without, ComponentType.ids(components));
+			plan = null;
+			return this;
+		}
+		
+		/**
+		 * Entities may have given components, see {@link #get(Number, Class)}.
+		 */
+		@JECSApi(since = "0.2.0")
+		public Query<EntityT, Component> optional(Class<?>... components) {
+			optional = concat(optional, ComponentType.ids(components));
+			return this;
+		}
+		
+		/**
+		 * Returns the registered group of entities that match this query. Query without required components
+		 * matches no entities, like {@link #BaseJECS.group(Class...)}.
+		 */
+		@JECSApi(since = "0.2.0")
+		public Group<EntityT, Component> group() {
+			if(plan == null)
+				plan = system.plan(with, without);
+			return system.group(plan);
+		}
+		
+		/**
+		 * Returns the number of entities that match this query.
+		 */
+		@JECSApi(since = "0.2.0")
+		public int size() {
+			return group().size();
+		}
+		
+		/**
+		 * Returns the component of <code>entity</code>. Optional component is null if entity doesn't have it.
+		 * 
+		 * @throws JECSException if entity doesn't have not optional component.
+		 */
+		@JECSApi(since = "0.2.0")
+		public <C> C get(EntityT entity, Class<C> componentT) {
+			int type = ComponentType.id(componentT);
+			for(int i = 0; i < optional.length; i++)
+				if(optional[i] == type)
+					return componentT.cast(system.tryGet(entity, componentT));
+			return componentT.cast(system.get(entity, componentT));
+		}
+		
+		/**
+		 * Visit all entities that match this query without registering a group, so one-shot queries don't
+		 * make each <code>emplace</code> and <code>erase</code> update one more group. Only the components of
+		 * the required type that currently has the fewest entities are iterated, the rest are probed by the 
+		 * masks of each visited entity. Visited entity may be destroyed, but other components should not be 
+		 * emplaced or erased until iteration is finished.
+		 */
+		@JECSApi(since = "0.2.0")
+		public void each(IEachE<EntityT> funcImpl) {
+			if(plan == null)
+				plan = system.plan(with, without);
+			system.each(plan, slot -> funcImpl.invoke(system.setEntityT(system.entities.id(slot))));
+		}
+		
+		/**
+		 * Iterates over the entities of {@link #group()}, from the last entity to the first one.
+		 */
+		@Override
+		public Iterator<EntityT> iterator() {
+			return group().iterator();
+		}
+		
+		private static int[] concat(int[] a, int[] b) {
+			int[] result = Arrays.copyOf(a, a.length + b.length);
+			System.arraycopy(b, 0, result, a.length, b.length);
+			return result;
+		}
+	}
+
+	/**
+	 * Compiled plan of iteration over entities that has all <code>types</code> and none of <code>excludes</code>.
+	 * Plans are cached by the system per signature (masks of both sets), so order and duplicates of types don't
+	 * matter and the masks are built only once. See {@link BaseJECS#each(Plan, IntConsumer)}.
+	 */
+	@JECSApi(since = "0.2.0")
+	static final class Plan<EntityT extends Number, Component extends Object> {
+		/**{@link ComponentType} identifiers of required components.*/
+		final int[] types;
+		/**{@link ComponentType} identifiers of excluded components.*/
+		final int[] excludes;
+		/**Mask of required components.*/
+		final long[] mask;
+		/**Mask of excluded components.*/
+		final long[] exclude;
+		/**Registered group of this signature, null until its requested.*/
+		Group<EntityT, Component> group;
+		
+		Plan(int[] types, int[] excludes) {
+			this.types = types;
+			this.excludes = excludes;
+			this.mask = ComponentMasks.mask(types);
+			this.exclude = ComponentMasks.mask(excludes);
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Plan && Arrays.equals(mask, ((Plan<?, ?>) obj).mask) && 
+				Arrays.equals(exclude, ((Plan<?, ?>) obj).exclude);
+		}
+		
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(mask) * 31 + Arrays.hashCode(exclude);
+		}
+	}
+	
+	/**
+	 * Signature of {@link Plan} by {@link ComponentType} identifiers in the order they were requested. Plans
+	 * are found by it without building masks, different orders of the same types lead to the same plan.
+	 */
+	@JECSApi(since = "0.2.0")
+	static final class PlanKey {
+		static final int[] NONE = new int[0];
+		
+		int[] types = NONE;
+		/**Number of used identifiers of {@link #types}, array of lookup key is reused.*/
+		int count = 0;
+		int[] excludes = NONE;
+		int hash = 0;
+		
+		PlanKey set(int[] types, int count, int[] excludes) {
+			this.types = types;
+			this.count = count;
+			this.excludes = excludes;
+			int hash = 1;
+			for(int i = 0; i < count; i++)
+				hash = hash * 31 + types[i];
+			this.hash = hash * 31 + Arrays.hashCode(excludes);
+			return this;
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if(!(obj instanceof PlanKey))
+				return false;
+			PlanKey key = (PlanKey) obj;
+			return Arrays.equals(types, 0, count, key.types, 0, key.count) && Arrays.equals(excludes, key.excludes);
+		}
+		
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+	
+	/**
+	 * View of entities that has one component. Like {@link Group}, view is registered in the system once per 
+	 * component type and then kept up to date.
+	 */
+	@JECSApi(since = "0.1.8")
+	public static final class View<EntityT extends Number> implements Iterable<EntityT> {
+		BaseJECS<EntityT, ?> system;
+		/**Slots of viewed entities.*/
+		SlotSet slots = new SlotSet();
+		/**Signature of the view, {@link ComponentType} identifier of viewed component.*/
+		int type = -1;
+		
+		public View(BaseJECS<EntityT, ?> system) {
+			this.system = system;
+		}
+		
+		View(BaseJECS<EntityT, ?> system, int type) {
+			this.system = system;
+			this.type = type;
+		}
+		
+		/**
+		 * Returns the number of entities in the view.
+		 */
+		@JECSApi(since = "0.2.0")
+		public int size() {
+			return slots.size();
+		}
+		
+		/**
+		 * Returns true if the view has no entities.
+		 */
+		@JECSApi(since = "0.2.0")
+		public boolean isEmpty() {
+			return slots.isEmpty();
+		}
+		
+		/**
+		 * Returns true if <code>entity</code> is in the view.
+		 */
+		@JECSApi(since = "0.2.0")
+		public boolean contains(EntityT entity) {
+			return slots.contains(system.slotOf(entity));
+		}
+		
+		/**
+		 * See {@link #BaseJECS.get(Number, Class)}.
+		 */
+		@JECSApi(since = "0.1.9")
+		public <C> C get(EntityT entity, Class<C> componentT) {
+			return componentT.cast(system.get(entity, componentT));
+		}
+
+		/**
+		 * Returns entities of the view which component was emplaced or changed after <code>tick</code>, see
+		 * {@link #BaseJECS.tick()}. Changes of the current and the previous tick made after the view was created 
+		 * are taken from the journal of changed entities in the order of change, older ones are found by
+		 * checking each entity of the view.
+		 */
+		@JECSApi(since = "0.2.0")
+		public List<EntityT> changedSince(long tick) {
+			return since(tick, false);
+		}
+		
+		/**
+		 * Returns entities of the view which component was emplaced after <code>tick</code>.
+		 */
+		@JECSApi(since = "0.2.0")
+		public List<EntityT> addedSince(long tick) {
+			return since(tick, true);
+		}
+		
+		/**
+		 * Returns entities which component of the view was removed after <code>tick</code>, they are not in the
+		 * view anymore and may be already destroyed. Only removals of the current and the previous tick are 
+		 * remembered, see {@link #BaseJECS.nextTick()}, and only since the view was created.
+		 */
+		@JECSApi(since = "0.2.0")
+		public List<EntityT> removedSince(long tick) {
+			List<EntityT> result = new ArrayList<>();
+			ChangeTicks ticks = type < system.changes.length ? system.changes[type] : null;
+			if(ticks == null)
+				return result;
+			for(int i = 0; i < ticks.removedCount(); i++)
+				if(ticks.removedTick(i) > tick)
+					result.add(system.setEntityT(ticks.removedEntity(i)));
+			return result;
+		}
+		
+		/**
+		 * Returns entities of the view which component was emplaced or changed in the current tick.
+		 */
+		@JECSApi(since = "0.2.0")
+		public List<EntityT> changed() {
+			return changedSince(system.tick - 1);
+		}
+		
+		/**
+		 * Returns entities of the view which component was emplaced in the current tick.
+		 */
+		@JECSApi(since = "0.2.0")
+		public List<EntityT> added() {
+			return addedSince(system.tick - 1);
+		}
+		
+		/**
+		 * Returns entities which component of the view was removed in the current tick.
+		 */
+		@JECSApi(since = "0.2.0")
+		public List<EntityT> removed() {
+			return removedSince(system.tick - 1);
+		}
+		
+		private List<EntityT> since(long tick, boolean added) {
+			List<EntityT> result = new ArrayList<>();
+			ChangeTicks ticks = type < system.changes.length ? system.changes[type] : null;
+			if(ticks == null)
+				return result;
+			if(ticks.journaled(tick)) {
+				// Changes of the last ticks are in the journal, so only changed slots are visited.
+				int first = ticks.journalCount();
+				while(first > 0 && ticks.journalTick(first - 1) > tick)
+					first--;
+				for(int i = first; i < ticks.journalCount(); i++) {
+					int slot = ticks.journalSlot(i);
+					if(ticks.changed(slot) == ticks.journalTick(i) && (!added || ticks.added(slot) > tick))
+						result.add(system.setEntityT(system.entities.id(slot)));
+				}
+				return result;
+			}
+			for(int i = 0; i < slots.size(); i++) {
+				int slot = slots.get(i);
+				if((added ? ticks.added(slot) : ticks.changed(slot)) > tick)
+					result.add(system.setEntityT(system.entities.id(slot)));
+			}
+			return result;
+		}
+		
+		/**
+		 * Returns a stream of entities of the view, see {@link #BaseJECS.entityStream()}.
+		 */
+		@JECSApi(since = "0.2.0")
+		public Stream<EntityT> stream() {
+			return system.stream(slots);
+		}
+		
+		/**
+		 * Calls <code>funcImpl</code> for entities of the view in parallel on the common {@link ForkJoinPool}. See 
+		 * {@link #BaseJECS.parallelEach(Class, IEach)} for restrictions of callback.
+		 */
+		@JECSApi(since = "0.2.0")
+		public void parallelEach(IEachE<EntityT> funcImpl) {
+			system.parallelEach(slots, funcImpl, ForkJoinPool.commonPool());
+		}
+		
+		/**
+		 * Calls <code>funcImpl</code> for entities of the view in parallel on the given <code>executor</code>.
+		 */
+		@JECSApi(since = "0.2.0")
+		public void parallelEach(IEachE<EntityT> funcImpl, Executor executor) {
+			system.parallelEach(slots, funcImpl, executor);
+		}
+		
+		/**
+		 * Iterates from the last entity to the first one, so the current entity can be destroyed or lose its
+		 * component during iteration.
+		 */
+		@Override
+		public Iterator<EntityT> iterator() {
+			return system.iterator(slots);
+		}
+	}
+
+	/**
+	 * Runs tasks (user systems) of the system each tick on a thread pool. Each task declares component types it 
+	 * reads and writes, two tasks conflict if one of them writes a type that the other reads or writes, or one
+	 * of them is {@link Task#exclusive()}. Task depends on all earlier added tasks it conflicts with, so 
+	 * conflicting tasks run in the order they were added and all other tasks run in parallel. {@link #run()}
+	 * returns when all tasks of the tick are done.
+	 * <p>
+	 * Tasks that create or destroy entities, or emplace or erase components, should be exclusive, because the
+	 * storages of the system are not thread safe. Other tasks iterate by <code>each</code> and <code>eachInt</code>
+	 * without holding the monitor of the system, so they don't wait for each other, and views, groups and plans of
+	 * queries they create lazily are registered under the monitor. If task throws an exception, tasks that depend 
+	 * on it are not run and the exception is rethrown by {@link #run()} after other tasks are done.
+	 * <p>
+	 * Example:
+	 * <pre>
+	 * var scheduler = system.scheduler();
+	 * scheduler.add("gravity", ...).writes(Velocity.class);
+	 * scheduler.add("movement", ...).reads(Velocity.class).writes(Position.class);
+	 * scheduler.add("animation", ...).writes(Sprite.class); // runs in parallel with both above.
+	 * scheduler.add("spawn", ...).exclusive();               // runs after all above.
+	 * scheduler.run();
+	 * </pre>
+	 */
+	@JECSApi(since = "0.2.0")
+	public static final class Scheduler implements Runnable {
+		/**Tasks in the order they were added.*/
+		List<Task> tasks = new ArrayList<>();
+		/**Executor of tasks.*/
+		Executor executor = ForkJoinPool.commonPool();
+		/**Positions of earlier tasks each task depends on, null if tasks were changed after last build.*/
+		int[][] dependencies = null;
+		/**Task that the current thread runs, null if it doesn't run a task of this scheduler.*/
+		final ThreadLocal<Task> current = new ThreadLocal<>();
+		
+		/**
+		 * Task of {@link Scheduler} with declared access to components.
+		 */
+		@JECSApi(since = "0.2.0")
+		public static final class Task {
+			Scheduler scheduler;
+			String name;
+			Runnable action;
+			/**Mask of {@link ComponentType} identifiers of components that task reads.*/
+			long[] reads = ComponentMasks.mask();
+			/**Mask of {@link ComponentType} identifiers of components that task writes.*/
+			long[] writes = ComponentMasks.mask();
+			/**True if task conflicts with all other tasks.*/
+			boolean exclusive = false;
+			
+			Task(Scheduler scheduler, String name, Runnable action) {
+				this.scheduler = scheduler;
+				this.name = name;
+				this.action = action;
+			}
+			
+			/**
+			 * Declare that task reads components of given types.
+			 */
+			@JECSApi(since = "0.2.0")
+			public Task reads(Class<?>... components) {
+				reads = or(reads, ComponentMasks.mask(ComponentType.ids(components)));
+				scheduler.dependencies = null;
+				return this;
+			}
+			
+			/**
+			 * Declare that task writes (or reads and writes) components of given types.
+			 */
+			@JECSApi(since = "0.2.0")
+			public Task writes(Class<?>... components) {
+				writes = or(writes, ComponentMasks.mask(ComponentType.ids(components)));
+				scheduler.dependencies = null;
+				return this;
+			}
+			
+			/**
+			 * Declare that task conflicts with all other tasks, like the task that changes entities or their set of
+			 * components.
+			 */
+			@JECSApi(since = "0.2.0")
+			public Task exclusive() {
+				exclusive = true;
+				scheduler.dependencies = null;
+				return this;
+			}
+			
+			/**
+			 * Returns the name of the task.
+			 */
+			@JECSApi(since = "0.2.0")
+			public String name() {
+				return name;
+			}
+			
+			/**
+			 * Returns true if this task and <code>other</code> task cannot run at the same time.
+			 */
+			@JECSApi(since = "0.2.0")
+			public boolean conflicts(Task other) {
+				return exclusive || other.exclusive || ComponentMasks.intersects(writes, other.writes) ||
+					ComponentMasks.intersects(writes, other.reads) || ComponentMasks.intersects(reads, other.writes);
+			}
+			
+			@Override
+			public String toString() {
+				return "Task[" + name + "]";
+			}
+			
+			private static long[] or(long[] a, long[] b) {
+				long[] result = Arrays.copyOf(a, Math.max(a.length, b.length));
+				for(int i = 0; i < b.length; i++)
+					result[i] |= b[i];
+				return result;
+			}
+		}
+		
+		/**
+		 * Add the task with <code>name</code> that runs <code>action</code> each tick. Access to components
+		 * is declared on returned task.
+		 */
+		@JECSApi(since = "0.2.0")
+		public Task add(String name, Runnable action) {
+			Task task = new Task(this, name, action);
+			tasks.add(task);
+			dependencies = null;
+			return task;
+		}
+		
+		/**
+		 * Remove the task with <code>name</code>.
+		 * 
+		 * @return True if task was removed.
+		 */
+		@JECSApi(since = "0.2.0")
+		public boolean remove(String name) {
+			dependencies = null;
+			return tasks.removeIf(task -> task.name.equals(name));
+		}
+		
+		/**
+		 * Set the executor of tasks, by default it's the common {@link ForkJoinPool}.
+		 */
+		@JECSApi(since = "0.2.0")
+		public Scheduler executor(Executor executor) {
+			this.executor = Objects.requireNonNull(executor);
+			return this;
+		}
+		
+		/**
+		 * Returns tasks in the order they were added.
+		 */
+		@JECSApi(since = "0.2.0")
+		public List<Task> tasks() {
+			return Collections.unmodifiableList(tasks);
+		}
+		
+		/**
+		 * Runs one tick: each task is started when all earlier tasks it conflicts with are done, returns when 
+		 * all tasks are done.
+		 */
+		@JECSApi(since = "0.2.0")
+		@Override
+		public void run() {
+			int[][] dependencies = build();
+			CompletableFuture<?>[] futures = new CompletableFuture<?>[tasks.size()];
+			for(int i = 0; i < futures.length; i++) {
+				Task task = tasks.get(i);
+				Runnable action = () -> {
+					current.set(task);
+					try {
+						task.action.run();
+					} finally {
+						current.remove();
+					}
+				};
+				int[] depends = dependencies[i];
+				if(depends.length == 0) {
+					futures[i] = CompletableFuture.runAsync(action, executor);
+					continue;
+				}
+				
+				CompletableFuture<?>[] before = new CompletableFuture<?>[depends.length];
+				for(int j = 0; j < depends.length; j++)
+					before[j] = futures[depends[j]];
+				futures[i] = CompletableFuture.allOf(before).thenRunAsync(action, executor);
+			}
+			join(futures);
+		}
+		
+		/**
+		 * Returns true if the current thread runs a task that is not exclusive, such tasks can run in parallel
+		 * and don't change storages, so they iterate the system without holding its monitor.
+		 */
+		boolean inParallelTask() {
+			Task task = current.get();
+			return task != null && !task.exclusive;
+		}
+		
+		/**
+		 * Build the dependency graph of tasks if it was changed, task depends on each earlier conflicting task.
+		 */
+		int[][] build() {
+			if(dependencies != null)
+				return dependencies;
+			
+			dependencies = new int[tasks.size()][];
+			int[] depends = new int[tasks.size()];
+			for(int i = 0; i < tasks.size(); i++) {
+				int count = 0;
+				for(int j = 0; j < i; j++)
+					if(tasks.get(i).conflicts(tasks.get(j)))
+						depends[count++] = j;
+				dependencies[i] = Arrays.copyOf(depends, count);
+			}
+			return dependencies;
+		}
+	}
+	
+	/**
+	 * Sink of one lifecycle signal of one component type, listeners connected to it are called in the order 
+	 * they were connected. See {@link #BaseJECS.onConstruct(Class)}, {@link #BaseJECS.onUpdate(Class)} and
+	 * {@link #BaseJECS.onDestroy(Class)}.
+	 * <p>
+	 * Listeners can be connected or disconnected while the signal is published, the change takes effect from
+	 * the next signal.
+	 */
+	@JECSApi(since = "0.2.0")
+	public static final class Sink<EntityT extends Number, Component extends Object> {
+		/**Connected listeners, array is replaced on each change.*/
+		ISignal<EntityT, Component>[] listeners = newListeners(0);
+		
+		Sink() {}
+		
+		/**
+		 * Connect the <code>listener</code> to the signal.
+		 */
+		@JECSApi(since = "0.2.0")
+		public Sink<EntityT, Component> connect(ISignal<EntityT, Component> listener) {
+			ISignal<EntityT, Component>[] newListeners = Arrays.copyOf(listeners, listeners.length + 1);
+			newListeners[listeners.length] = Objects.requireNonNull(listener);
+			listeners = newListeners;
+			return this;
+		}
+		
+		/**
+		 * Disconnect the <code>listener</code> from the signal.
+		 * 
+		 * @return True if listener was connected.
+		 */
+		@JECSApi(since = "0.2.0")
+		public boolean disconnect(ISignal<EntityT, Component> listener) {
+			for(int i = 0; i < listeners.length; i++) {
+				if(listeners[i] != listener)
+					continue;
+				ISignal<EntityT, Component>[] newListeners = newListeners(listeners.length - 1);
+				System.arraycopy(listeners, 0, newListeners, 0, i);
+				System.arraycopy(listeners, i + 1, newListeners, i, listeners.length - i - 1);
+				listeners = newListeners;
+				return true;
+			}
+			return false;
+		}
+		
+		/**
+		 * Returns the number of connected listeners.
+		 */
+		@JECSApi(since = "0.2.0")
+		public int size() {
+			return listeners.length;
+		}
+		
+		/**
+		 * Returns true if no one listener is connected.
+		 */
+		@JECSApi(since = "0.2.0")
+		public boolean isEmpty() {
+			return listeners.length == 0;
+		}
+		
+		void publish(EntityT entity, Component component) {
+			ISignal<EntityT, Component>[] listeners = this.listeners;
+			for(int i = 0; i < listeners.length; i++)
+				listeners[i].invoke(entity, component);
+		}
+		
+		@SuppressWarnings("unchecked")
+		private static <EntityT, Component> ISignal<EntityT, Component>[] newListeners(int length) {
+			return (ISignal<EntityT, Component>[]) new ISignal<?, ?>[length];
+		}
+	}
+	
+	/**
+	 * Records structural changes (<code>create</code>, <code>destroy</code>, <code>emplace</code>, <code>erase</code>,
+	 * <code>replace</code>) to apply them later in one batch by {@link #apply()}. Changes recorded inside of
+	 * <code>each</code> callbacks, iterators of groups and views or tasks of {@link Scheduler} doesn't affect the 
+	 * iteration, they are applied at the sync point chosen by user, like the end of the tick.
+	 * <p>
+	 * Recording is thread safe, so tasks running in parallel can share one buffer. On apply entities are created
+	 * first, then component changes are applied sorted by component type (in the order they were recorded for the same
+	 * type and entity), so each storage is touched in one run, and then entities are destroyed. Changes of entities
+	 * that doesn't exist at apply time are skipped.
+	 * <p>
+	 * Example:
+	 * <pre>
+	 * var commands = system.commandBuffer();
+	 * system.each(Health.class, (entity, health) -> {
+	 *     if(health.value <= 0)
+	 *         commands.destroy(entity);
+	 * });
+	 * commands.apply();
+	 * </pre>
+	 */
+	@JECSApi(since = "0.2.0")
+	public static final class CommandBuffer<EntityT extends Number, Component extends Object> {
+		static final int CREATE = 0, EMPLACE = 1, REPLACE = 2, ERASE = 3, DESTROY = 4;
+		
+		/**
+		 * One recorded change.
+		 */
+		static final class Command<EntityT> {
+			int kind;
+			EntityT entity;
+			/**{@link ComponentType} identifier of component, -1 for commands without component.*/
+			int type;
+			/**Component to emplace or replace, or class of component to erase.*/
+			Object component;
+			/**Components of created entity.*/
+			Object[] components;
+			
+			Command(int kind, EntityT entity, int type, Object component, Object[] components) {
+				this.kind = kind;
+				this.entity = entity;
+				this.type = type;
+				this.component = component;
+				this.components = components;
+			}
+		}
+		
+		BaseJECS<EntityT, Component> system;
+		/**Recorded changes in the order they were recorded.*/
+		List<Command<EntityT>> commands = new ArrayList<>();
+		
+		CommandBuffer(BaseJECS<EntityT, Component> system) {
+			this.system = system;
+		}
+		
+		/**
+		 * Record creation of the entity with given <code>components</code>.
+		 */
+		@JECSApi(since = "0.2.0")
+		public synchronized void create(Object... components) {
+			commands.add(new Command<>(CREATE, null, -1, null, components));
+		}
+		
+		/**
+		 * Record destruction of <code>entity</code>.
+		 */
+		@JECSApi(since = "0.2.0")
+		public synchronized void destroy(EntityT entity) {
+			commands.add(new Command<>(DESTROY, entity, -1, null, null));
+		}
+		
+		/**
+		 * Record emplacing of <code>component</code> to <code>entity</code>, see {@link #BaseJECS.emplace(Number, Object)}.
+		 */
+		@JECSApi(since = "0.2.0")
+		public synchronized <C extends Component> void emplace(EntityT entity, C component) {
+			commands.add(new Command<>(EMPLACE, entity, ComponentType.id(component.getClass()), component, null));
+		}
+		
+		/**
+		 * Record replacing of the component of <code>entity</code>, see {@link #BaseJECS.replace(Number, Object)}.
+		 */
+		@JECSApi(since = "0.2.0")
+		public synchronized <C extends Component> void replace(EntityT entity, C component) {
+			commands.add(new Command<>(REPLACE, entity, ComponentType.id(component.getClass()), component, null));
+		}
+		
+		/**
+		 * Record erasing of the component of <code>componentT</code> from <code>entity</code>, see 
+		 * {@link #BaseJECS.erase(Number, Class)}.
+		 */
+		@JECSApi(since = "0.2.0")
+		public synchronized <C extends Component> void erase(EntityT entity, Class<C> componentT) {
+			commands.add(new Command<>(ERASE, entity, ComponentType.id(componentT), componentT, null));
+		}
+		
+		/**
+		 * Returns the number of recorded changes.
+		 */
+		@JECSApi(since = "0.2.0")
+		public synchronized int size() {
+			return commands.size();
+		}
+		
+		/**
+		 * Returns true if no one change is recorded.
+		 */
+		@JECSApi(since = "0.2.0")
+		public synchronized boolean isEmpty() {
+			return commands.isEmpty();
+		}
+		
+		/**
+		 * Forget all recorded changes.
+		 */
+		@JECSApi(since = "0.2.0")
+		public synchronized void clear() {
+			commands.clear();
+		}
+		
+		/**
+		 * Apply all recorded changes to the system and clear the buffer. Should be called when no one 
+		 * iteration over the system is running.
+		 * 
+		 * @throws JECSException if change cannot be applied, like emplacing existing component. Changes after 
+		 * that one are not applied.
+		 */
+		@SuppressWarnings("unchecked")
+		@JECSApi(since = "0.2.0")
+		public void apply() throws JECSException {
+			List<Command<EntityT>> commands;
+			synchronized(this) {
+				commands = this.commands;
+				this.commands = new ArrayList<>();
+			}
+			
+			for(int i = 0; i < commands.size(); i++) {
+				Command<EntityT> command = commands.get(i);
+				if(command.kind != CREATE)
+					continue;
+				EntityT entity = system.create();
+				for(Object component : command.components)
+					system.emplace(entity, (Component) component);
+			}
+			
+			// Component changes by type and then by slot, sort is stable so changes of the same component keep their order.
+			List<Command<EntityT>> changes = new ArrayList<>(commands.size());
+			for(int i = 0; i < commands.size(); i++)
+				if(commands.get(i).kind != CREATE && commands.get(i).kind != DESTROY)
+					changes.add(commands.get(i));
+			changes.sort(Comparator.<Command<EntityT>>comparingInt(command -> command.type)
+				.thenComparingInt(command -> system.slotOf(command.entity)));
+			for(int i = 0; i < changes.size(); i++) {
+				Command<EntityT> command = changes.get(i);
+				if(!system.contains(command.entity))
+					continue;
+				switch(command.kind) {
+					case EMPLACE: system.emplace(command.entity, (Component) command.component); break;
+					case REPLACE: system.replace(command.entity, (Component) command.component); break;
+					case ERASE:   system.erase(command.entity, (Class<Component>) command.component); break;
+				}
+			}
+			
+			for(int i = 0; i < commands.size(); i++) {
+				Command<EntityT> command = commands.get(i);
+				if(command.kind == DESTROY && system.contains(command.entity))
+					system.destroy(command.entity);
+			}
+		}
+	}
+	
+	/**
+	 * Read-only list view over primitive {@link EntitySet} of this system. Identifiers are boxed only when
+	 * they are accessed, so it should be used only by API that returns entities as objects.
+	 */
+	@JECSApi(since = "0.2.0")
+	final class EntityList extends AbstractList<EntityT> implements RandomAccess {
+		@Override
+		public EntityT get(int index) {
+			return setEntityT(entities.get(index));
+		}
+
+		@Override
+		public int size() {
+			return entities.size();
+		}
+	}
+	
+	/**
+	 * Read-only list view over entities that has a component of one type, read directly from the storage
+	 * of this type. See {@link BaseJECS#entitiesOf(Class)}.
+	 */
+	@JECSApi(since = "0.2.0")
+	final class TypeEntityList extends AbstractList<EntityT> implements RandomAccess {
+		final int type;
+		
+		TypeEntityList(int type) {
+			this.type = type;
+		}
+		
+		@Override
+		public EntityT get(int index) {
+			int slot = slotAt(type, index);
+			if(slot == -1)
+				throw new IndexOutOfBoundsException(index);
+			return setEntityT(entities.id(slot));
+		}
+
+		@Override
+		public int size() {
+			return sizeOf(type);
+		}
+	}
+
+	//==========      Entity Identifier      ==============================================
+	private final Class<EntityT>                          entityType;
+	
+	//===========        JECS Handle         ==============================================
+	static  BaseJECS<?, ?>                                instnace    = null;
+	/**Global statistic thing to calculate how many entities were created.*/
+	static  int                                           entityCount = -1;
+	/**This is random entity generator.*/
+	static  ThreadLocalRandom                             randomEngine = null;
+	/**Current emplaced entity, -1 if no one entity was emplaced yet.*/
+	long                                                  currentEmplacedEntity = -1;
+	/**Contains information about this handle.*/
+	Context                                               context;
+
+	//===========  Entities, Pools, Containers ==============================================
+	/**Primitive sparse set of entity identifiers, gives each entity a slot used by other storages.*/
+	EntitySet                                             entities;
+	/**Boxed read-only view of entities, for public API that works with lists and iterators.*/
+	EntityList                                            entityList = new EntityList();
+	/**Sequence of all components of each entity, indexed by entity slot. Sequences are reused by slots.*/
+	ComponentSequence<Component>[]                        container;
+	/**Packs of components to store and for better iteration time.*/
+	Map<Integer, ComponentSequence<Component>>            packs;
+	/**Storage of components of all entities, by entity slot and {@link ComponentType} identifier.*/
+	ComponentStorage<Component>                           storage;
+	/**Bitset of component types of each entity, indexed by entity slot.*/
+	ComponentMasks                                        masks = new ComponentMasks();
+	/**Off-heap pools of {@link OffHeap} component types, indexed by {@link ComponentType} identifier.*/
+	OffHeapPool<?>[]                                      offHeap = new OffHeapPool<?>[0];
+	/**Current tick of the system, see {@link #tick()}.*/
+	long                                                  tick = 1;
+	/**Sinks of construct, update and destroy signals, indexed by signal and {@link ComponentType} identifier.*/
+	Sink<EntityT, ?>[][]                                  sinks = newSinks();
+	/**Change ticks of components, indexed by {@link ComponentType} identifier.*/
+	volatile ChangeTicks[]                                changes = new ChangeTicks[0];
+	/**Buffers of sorts by keys, reused between sorts.*/
+	final RadixSort                                       radixSort = new RadixSort();
+	/**Slots of entities that holds on-heap component instances, used to find entity by component.*/
+	final IdentitySlotMap                                 owners = new IdentitySlotMap();
+	/**{@link ComponentType} identifiers of component types that were emplaced in this system at least once.*/
+	BitSet                                                emplacedTypes = new BitSet();
+	/**Identifiers of emplaced component types by each queried supertype or interface, see {@link #subtypes(Class)}.*/
+	Map<Class<?>, int[]>                                  subtypes = new HashMap<>();
+	/**Compiled plans of iteration by their signatures, see {@link #plan(int[], int[])}.*/
+	Map<Plan<EntityT, Component>, Plan<EntityT, Component>> plans = new HashMap<>();
+	/**Compiled plans by identifiers of their types in the order they were requested.*/
+	Map<PlanKey, Plan<EntityT, Component>>                planKeys = new HashMap<>();
+	/**Key of lookups in {@link #planKeys}, reused under the monitor of the system.*/
+	final PlanKey                                         planProbe = new PlanKey();
+	/**Identifiers of component types of the current {@link #group(Class...)} lookup.*/
+	int[]                                                 planIds = new int[4];
+	/**Registered groups of entities by components, one per set of component types.**/
+	List<Group<EntityT, Component>>                       groups = new ArrayList<>();
+	/**Registered owning groups, each component type is owned at most by one of them.**/
+	List<OwningGroup<EntityT, Component>>                 owningGroups = new ArrayList<>();
+	/**Tasks of this system that runs each tick, see {@link #run()}.*/
+	Scheduler                                             scheduler = new Scheduler();
+	/**Registered views of entities by component, one per component type.**/
+	List<View<EntityT>>                                   views = new ArrayList<>();
+	/**Temparary component array stored by #push and released by #pop.*/
+	Object[]                                              arr = null;
+	/** Global pack index. */
+	int                                                   packIndex = 0;
+	
+	/**Just null is already exist + im love C++.*/
+	@JECSApi
+	private static final Object nullptr(Object o) { return o = null; }
+	
+	/**
+	 * Return generic class parameters of this class.
 	 */
 	@JECSApi(since = "0.1.0")
 	protected static Class<?> getGenericParameterClass(Class<?> actualClass, int parameterIndex) 
@@ -755,13 +2478,19 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	@JECSApi(since = "0.1.8", funcDesc = "constructor")
 	public static <EntityT extends Number, CompObj extends Object> JECSGeneric<EntityT>
 		construct(Class<EntityT> entityType) {
+		checkEntityType(entityType);
+		return Context.newInstance(entityType);
+	}
+	
+	/**
+	 * Throws {@link JECSException} if <code>entityType</code> is not {@link Integer} or {@link Long} or {@link Short}.
+	 */
+	private static void checkEntityType(Class<?> entityType) {
 		boolean validType = false;
 		if(Short.class.isAssignableFrom(entityType) || Integer.class.isAssignableFrom(entityType) || Long.class.isAssignableFrom(entityType))
 			validType = true;
 		if(!validType)
 			throw new JECSException("Cannot costruct the system. The " + entityType.getName() + " is not valid entity identifier type.");
-		
-		return Context.newInstance(entityType);
 	}
 	
 	/**
@@ -785,6 +2514,31 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 		Context.ctxRelease = optimizedMode;	
 		return construct(entityType);
 	}
+	
+	/**
+	 * Construct instance with given storage of components. Look at {@link BaseJECS#construct()} and
+	 * {@link StorageMode}.
+	 * 
+	 * @param storageMode - Layout of components, {@link StorageMode#POOLS} or {@link StorageMode#ARCHETYPES}.
+	 */
+	@JECSApi(since = "0.2.0", funcDesc = "constructor")
+	public static JECS construct(StorageMode storageMode) {
+		return Context.newInstance(storageMode);
+	}
+	
+	/**
+	 * Construct instance with given storage of components. Look at {@link BaseJECS#construct(Class)} and
+	 * {@link StorageMode}.
+	 * 
+	 * @param entityType - Acceptable entity type {@link Integer} or {@link Long} or {@link Short}.
+	 * @param storageMode - Layout of components, {@link StorageMode#POOLS} or {@link StorageMode#ARCHETYPES}.
+	 */
+	@JECSApi(since = "0.2.0", funcDesc = "constructor")
+	public static <EntityT extends Number> JECSGeneric<EntityT> 
+		construct(Class<EntityT> entityType, StorageMode storageMode) {
+		checkEntityType(entityType);
+		return Context.newInstance(entityType, storageMode);
+	}
 
 	/**
 	 * Deallocate and deconstruct this <code>system</code>.
@@ -814,32 +2568,34 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	@JECSApi(funcDesc = "constructor")
 	@Deprecated(since = "use JECS.construct() instead", forRemoval = false)
 	protected BaseJECS(Class<EntityT> entityType) {
-		Thread thread = new Thread(this, "JECS System Thread");
-		thread.start();
-		
+		this(entityType, StorageMode.POOLS);
+	}
+	
+	/**
+	 * Constructs the system with given storage of components, see {@link StorageMode}.
+	 * <p>
+	 * See for constructing {@link #construct(StorageMode)}.
+	 */
+	@JECSApi(since = "0.2.0", funcDesc = "constructor")
+	protected BaseJECS(Class<EntityT> entityType, StorageMode storageMode) {
 		if(context == null)
 			context = new Context();
 		
 		this.entityType = entityType;
 		
-		entities = new ArrayList<EntityT>();			
-		container = new HashMap<EntityT, ComponentSequence<Component>>();
-		pool = new HashMap<Class<Component>, List<Pair<EntityT, Component>>>();
+		entities = isInt16() ? new IntEntitySet(context.ctxIndexBitsInt16, 15 - context.ctxIndexBitsInt16) :
+				   isInt32() ? new IntEntitySet(context.ctxIndexBitsInt32, 31 - context.ctxIndexBitsInt32) :
+					           new LongEntitySet(context.ctxIndexBitsInt64, 63 - context.ctxIndexBitsInt64);
+		container = newSequences(entities.capacity());
+		context.ctxStorageMode = storageMode;
+		storage = storageMode == StorageMode.ARCHETYPES ? new ArchetypeStorage<Component>(entities) :
+				  new PoolStorage<Component>(entities, ComponentType::id);
 		packs = new TreeMap<Integer, ComponentSequence<Component>>();
 		for(int i = 0; i < context.ctxDefaultPackCapacity; i++)
 			packs.put(i, new ComponentSequenceImpl<Component>());
 			
 		if(context.ctxRandomEntityGenerator)
 			randomEngine = ThreadLocalRandom.current();
-		else {
-			if(isInt32())
-				incrementalEngine = (EntityT) setEntityT(-1);
-			else if(isInt64())
-				incrementalEngine = (EntityT) setEntityT(-1);
-		}
-			
-		if(!container.isEmpty())
-			this.clear();
 		
 		instnace = this;
 	}
@@ -862,137 +2618,620 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	}
 	
 	/**
-	 * Generate a simple valid entity indentifier. If {@link #randomEntityGenerator} if enabled
-	 * then will runs random generator of valid entities, otherwise basic increment generator.
-	 * 
-	 * @return Returns new generated valid entity.
+	 * Check if this entity type is Integer (short) = 16 bit int.
 	 */
-	@JECSApi(since = "0.1.5")
-	private final EntityT generateEntity() {
-		if(context.ctxRandomEntityGenerator)
-			return generateRandomEntity();
-		else 
-			return generateNonRandomEntity();
+	private final boolean isInt16() {
+		if(Short.class.isAssignableFrom(entityType))
+			return true;
+		return false;
 	}
 	
 	/**
-	 * Generate a random valid entity indentifier.
-	 * 
-	 * @return Returns new generated valid entity.
+	 * Check if this entity type is Integer (int) = 32 bit int.
+	 */
+	private final boolean isInt32() {
+		if(Integer.class.isAssignableFrom(entityType))
+			return true;
+		return false;
+	}
+	
+	/**
+	 * Check if this entity type is Long (long) = 64 bit int.
+	 */
+	private final boolean isInt64() {
+		if(Long.class.isAssignableFrom(entityType))
+			return true;
+		return false;
+	}
+	
+	/**
+	 * Assigment operator for EntityT. Set the value depending on EntityT.
+	 */
+	@SuppressWarnings("unchecked")
+	private final EntityT setEntityT(long v) {
+		return isInt16() ? (EntityT) Short.valueOf((short)v) : isInt32() ? (EntityT) Integer.valueOf((int)v) : (EntityT)Long.valueOf(v);
+	}
+	
+	/**
+	 * Assigment operator for EntityT.Set the string value depending on EntityT.
+	 */
+	@SuppressWarnings("unchecked")
+	private final EntityT setEntityT(String s) {
+		return isInt16() ? (EntityT) Short.valueOf(s) : isInt32() ? (EntityT) Integer.valueOf(s) : (EntityT)Long.valueOf(s);
+	}
+	
+	/**
+	 * Allocate an empty array of component sequences.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <Component> ComponentSequence<Component>[] newSequences(int capacity) {
+		return (ComponentSequence<Component>[]) new ComponentSequence<?>[capacity];
+	}
+	
+	/**
+	 * Return the slot of <code>entity</code> in the {@link EntitySet}, or -1 if entity not exist.
+	 */
+	@JECSApi(since = "0.2.0")
+	final int slotOf(EntityT entity) {
+		long id = idOf(entity);
+		return id == -1 ? -1 : entities.slot(id);
+	}
+	
+	/**
+	 * Return the primitive identifier of <code>entity</code>, or -1 if it's null or {@link NullEntity}.
+	 */
+	@JECSApi(since = "0.2.0")
+	static long idOf(Number entity) {
+		if(entity == null || entity instanceof NullEntity)
+			return -1;
+		return entity.longValue();
+	}
+	
+	/**
+	 * Return the slot of existing <code>entity</code>.
 	 * 
-	 * @throws JECSException if type of entity identifier is not acceptable.
+	 * @throws JECSException if entity not exist.
+	 */
+	@JECSApi(since = "0.2.0")
+	final int slotOrThrow(EntityT entity) {
+		int slot = slotOf(entity);
+		if(slot == -1)
+			throw new JECSException("Entity " + entity + " doesn't exist!");
+		return slot;
+	}
+	
+	/**
+	 * Return the sequence of components of entity in the <code>slot</code>. Sequence is allocated when 
+	 * it needed first time for this slot and then reused by all entities that takes this slot.
+	 */
+	@JECSApi(since = "0.2.0")
+	final ComponentSequence<Component> sequence(int slot) {
+		ComponentSequence<Component> components = container[slot];
+		if(components == null)
+			container[slot] = components = new ComponentSequenceImpl<Component>();
+		return components;
+	}
+	
+	/**
+	 * Return the off-heap pool of components by {@link ComponentType} identifier, or null if type is not
+	 * {@link OffHeap} or no one component of this type was emplaced yet.
 	 */
 	@SuppressWarnings("unchecked")
-	@JECSApi(since = "0.1.5")
-	private final EntityT generateRandomEntity() {
-		if (isInt16()) {
-			return (EntityT)(Short)(short)randomEngine.nextInt(0, context.ctxMaxEntitiesInt16);
-		} else if(isInt32())
-			return (EntityT)(Integer)randomEngine.nextInt(0, context.ctxMaxEntitiesInt32);
-		else if(isInt64())
-			return (EntityT)(Long)randomEngine.nextLong(0, context.ctxMaxEntitiesInt64);
-		
-		throw new JECSException("Type " + entityType.getName() + " not valid for entity identifier.");
+	@JECSApi(since = "0.2.0")
+	final OffHeapPool<Component> offHeapOf(int type) {
+		return type < offHeap.length ? (OffHeapPool<Component>) offHeap[type] : null;
+	}
+	
+	/**
+	 * Return the change ticks of components of <code>type</code>, if it not exist its will be created.
+	 */
+	@JECSApi(since = "0.2.0")
+	final ChangeTicks changesOf(int type) {
+		ChangeTicks[] changes = this.changes;
+		if(type < changes.length && changes[type] != null)
+			return changes[type];
+		return createChanges(type);
+	}
+	
+	/**
+	 * Slow path of {@link #changesOf(int)}, ticks may be created by parallel tasks of the {@link Scheduler}.
+	 */
+	private synchronized ChangeTicks createChanges(int type) {
+		if(type >= changes.length)
+			changes = Arrays.copyOf(changes, Math.max(changes.length << 1, type + 1));
+		if(changes[type] == null)
+			changes[type] = new ChangeTicks();
+		return changes[type];
+	}
+	
+	/**Index of signal in {@link #sinks}.*/
+	static final int CONSTRUCT = 0, UPDATE = 1, DESTROY = 2;
+	
+	@SuppressWarnings("unchecked")
+	private Sink<EntityT, ?>[][] newSinks() {
+		return (Sink<EntityT, ?>[][]) new Sink<?, ?>[3][0];
+	}
+	
+	/**
+	 * Return the sink of <code>signal</code> of components of <code>type</code>, if it not exist its will be created.
+	 */
+	@SuppressWarnings("unchecked")
+	@JECSApi(since = "0.2.0")
+	private synchronized <C> Sink<EntityT, C> sinkOf(int signal, int type) {
+		if(type >= sinks[signal].length)
+			sinks[signal] = Arrays.copyOf(sinks[signal], Math.max(sinks[signal].length << 1, type + 1));
+		if(sinks[signal][type] == null)
+			sinks[signal][type] = new Sink<EntityT, C>();
+		return (Sink<EntityT, C>) sinks[signal][type];
 	}
 	
 	/**
-	 * Increase a NON_RAN_GENERATOR by one.
+	 * Returns true if at least one listener is connected to <code>signal</code> of components of <code>type</code>.
+	 */
+	@JECSApi(since = "0.2.0")
+	private boolean listened(int signal, int type) {
+		return type < sinks[signal].length && sinks[signal][type] != null && !sinks[signal][type].isEmpty();
+	}
+	
+	/**
+	 * Call listeners of <code>signal</code> of components of <code>type</code>, the entity is boxed only if 
+	 * there are listeners.
+	 */
+	@SuppressWarnings("unchecked")
+	@JECSApi(since = "0.2.0")
+	private void publish(int signal, int type, int slot, Object component) {
+		if(listened(signal, type))
+			((Sink<EntityT, Object>) sinks[signal][type]).publish(setEntityT(entities.id(slot)), component);
+	}
+	
+	/**
+	 * Return the component of <code>type</code> of entity in <code>slot</code>, or null. Off-heap component is a copy.
+	 */
+	@JECSApi(since = "0.2.0")
+	private Object componentOf(int slot, int type) {
+		OffHeapPool<Component> components = offHeapOf(type);
+		return components != null ? components.get(slot) : storage.get(slot, type);
+	}
+	
+	/**
+	 * Return the off-heap pool of <code>componentT</code> if its class is {@link OffHeap}, if it not exist its 
+	 * will be created. For other classes returns null.
 	 * 
-	 * @throws JECSException if type of entity identifier is not acceptable.
+	 * @throws JECSException if class can't be stored off-heap.
 	 */
 	@SuppressWarnings("unchecked")
-	private final EntityT generateNonRandomEntity() {
-		if(isInt16()) {
-			var i = (short)incrementalEngine; i++;
-			return incrementalEngine = (EntityT)Short.valueOf(i);
-		} else if(isInt32()) {
-			var i = (int)incrementalEngine; i++;
-			return incrementalEngine = (EntityT)Integer.valueOf(i);
-		} else if(isInt64()) {
-			var i = (long)incrementalEngine; i++;
-			return incrementalEngine = (EntityT)Long.valueOf(i);
+	@JECSApi(since = "0.2.0")
+	final OffHeapPool<Component> assureOffHeap(Class<?> componentT, int type) {
+		OffHeapPool<Component> components = offHeapOf(type);
+		if(components != null || !componentT.isAnnotationPresent(OffHeap.class))
+			return components;
+		
+		try {
+			components = new OffHeapPool<Component>((Class<Component>) componentT);
+		} catch (IllegalArgumentException e) {
+			throw new JECSException("Cannot store component off-heap. " + e.getMessage());
+		}
+		if(type >= offHeap.length)
+			offHeap = Arrays.copyOf(offHeap, type + 1);
+		offHeap[type] = components;
+		return components;
+	}
+	
+	/**
+	 * Returns the number of entities that has a component of <code>type</code>.
+	 */
+	@JECSApi(since = "0.2.0")
+	final int sizeOf(int type) {
+		OffHeapPool<Component> components = offHeapOf(type);
+		return components != null ? components.size() : storage.size(type);
+	}
+	
+	/**
+	 * Return the slot of entity at <code>index</code> among entities that has a component of <code>type</code>, 
+	 * or -1 if index is out of range.
+	 */
+	@JECSApi(since = "0.2.0")
+	final int slotAt(int type, int index) {
+		OffHeapPool<Component> components = offHeapOf(type);
+		if(components == null)
+			return storage.slotAt(type, index);
+		return index >= 0 && index < components.size() ? components.slot(index) : -1;
+	}
+	
+	/**
+	 * Visit the slots of all entities that has a component of <code>type</code>.
+	 */
+	@JECSApi(since = "0.2.0")
+	final void eachSlot(int type, IntConsumer action) {
+		OffHeapPool<Component> components = offHeapOf(type);
+		if(components == null) {
+			storage.each(new int[] { type }, new int[0], action);
+			return;
+		}
+		for(int i = 0; i < components.size(); i++)
+			action.accept(components.slot(i));
+	}
+	
+	/**
+	 * Callback of {@link BaseJECS#eachSubtype(int, int, long[], List, SlotEach)} with the slot of entity.
+	 */
+	@FunctionalInterface
+	static interface SlotEach<Component> {
+		void invoke(int slot, Component component);
+	}
+	
+	/**
+	 * Return not empty off-heap pools of component <code>types</code>.
+	 */
+	final List<OffHeapPool<Component>> offHeapPools(int[] types) {
+		List<OffHeapPool<Component>> pools = Collections.emptyList();
+		for(int i = 0; i < types.length; i++) {
+			OffHeapPool<Component> components = offHeapOf(types[i]);
+			if(components == null || components.isEmpty())
+				continue;
+			if(pools.isEmpty())
+				pools = new ArrayList<>();
+			pools.add(components);
 		}
+		return pools;
+	}
+	
+	/**
+	 * Visit components of entities at positions <code>[from, to)</code> of entities container, which types are 
+	 * in <code>mask</code>. Entities without any of them are skipped by their component masks. Off-heap components
+	 * of <code>pools</code> are not in sequences of entities, they are read to one instance per pool created by this
+	 * call and written back after the callback, so parallel ranges never share instances.
+	 */
+	final void eachSubtype(int from, int to, long[] mask, List<OffHeapPool<Component>> pools, SlotEach<Component> action) {
+		Object[] instances = new Object[pools.size()];
+		for(int i = 0; i < instances.length; i++)
+			instances[i] = pools.get(i).get(pools.get(i).slot(0));
 		
-		throw new JECSException("Type " + entityType.getName() + " not valid for entity identifier.");
+		for(int index = from; index < to && index < entities.size(); index++) {
+			int slot = entities.slotAt(index);
+			if(!masks.containsAny(slot, mask))
+				continue;
+			
+			ComponentSequence<Component> components = container[slot];
+			for(int componentIndex = 0; components != null && componentIndex < components.size(); componentIndex++) {
+				Component component = components.get(componentIndex);
+				if(ComponentMasks.contains(mask, ComponentType.id(component.getClass())))
+					action.invoke(slot, component);
+			}
+			for(int i = 0; i < instances.length; i++) {
+				OffHeapPool<Component> pool = pools.get(i);
+				int position = pool.index(slot);
+				if(position == -1)
+					continue;
+				@SuppressWarnings("unchecked")
+				Component component = pool.read(position, (Component) instances[i]);
+				action.invoke(slot, component);
+				
+				// Callback may remove the component, then it should not be written back.
+				if(pool.index(slot) == position)
+					pool.store(position, component);
+			}
+		}
 	}
 	
 	/**
-	 * Check if this entity type is Integer (short) = 16 bit int.
+	 * Range of dense positions <code>[from, to)</code> processed by one task of parallel iteration.
 	 */
-	private final boolean isInt16() {
-		if(Short.class.isAssignableFrom(entityType))
-			return true;
-		return false;
+	@FunctionalInterface
+	static interface Range {
+		void run(int from, int to);
 	}
 	
+	/**Minimal number of positions in one range of parallel iteration, smaller work runs on the caller thread.*/
+	static final int PARALLEL_RANGE = 1024;
+	
 	/**
-	 * Check if this entity type is Integer (int) = 32 bit int.
+	 * Split dense positions <code>[0, size)</code> into ranges and run <code>action</code> for them on the
+	 * <code>executor</code>, the last range runs on the caller thread. Returns or throws only when all ranges 
+	 * are done, exception thrown by one of ranges is rethrown to the caller.
 	 */
-	private final boolean isInt32() {
-		if(Integer.class.isAssignableFrom(entityType))
-			return true;
+	@JECSApi(since = "0.2.0")
+	static void parallel(int size, Executor executor, Range action) {
+		int parallelism = executor instanceof ForkJoinPool ? ((ForkJoinPool) executor).getParallelism() : 
+			Runtime.getRuntime().availableProcessors();
+		int count = Math.min((size + PARALLEL_RANGE - 1) / PARALLEL_RANGE, parallelism * 4);
+		if(count <= 1) {
+			action.run(0, size);
+			return;
+		}
+		
+		CompletableFuture<?>[] tasks = new CompletableFuture<?>[count - 1];
+		for(int i = 0; i < count - 1; i++) {
+			int from = (int) ((long) size * i / count), to = (int) ((long) size * (i + 1) / count);
+			tasks[i] = CompletableFuture.runAsync(() -> action.run(from, to), executor);
+		}
+		try {
+			action.run((int) ((long) size * (count - 1) / count), size);
+		} catch (RuntimeException | Error e) {
+			// Other ranges are still calling the action on the system, wait for them before the caller gets control back.
+			try {
+				join(tasks);
+			} catch (RuntimeException | Error suppressed) {
+				if(suppressed != e)
+					e.addSuppressed(suppressed);
+			}
+			throw e;
+		}
+		join(tasks);
+	}
+	
+	/**
+	 * Wait for all <code>tasks</code>, exception thrown by one of them is rethrown to the caller as is.
+	 */
+	@JECSApi(since = "0.2.0")
+	static void join(CompletableFuture<?>... tasks) {
+		try {
+			CompletableFuture.allOf(tasks).join();
+		} catch (CompletionException e) {
+			if(e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			if(e.getCause() instanceof Error)
+				throw (Error) e.getCause();
+			throw e;
+		}
+	}
+	
+	/**
+	 * Returns a stream of entities of <code>slots</code>, see {@link #entityStream()}.
+	 */
+	@JECSApi(since = "0.2.0")
+	final Stream<EntityT> stream(SlotSet slots) {
+		return StreamSupport.stream(new IndexSpliterator<EntityT>(index -> setEntityT(entities.id(slots.get(index))), 
+			0, slots.size(), Spliterator.NONNULL | Spliterator.DISTINCT), false);
+	}
+	
+	/**
+	 * Call <code>funcImpl</code> for entities of <code>slots</code> in parallel, see {@link #parallel(int, Executor, Range)}.
+	 */
+	@JECSApi(since = "0.2.0")
+	final void parallelEach(SlotSet slots, IEachE<EntityT> funcImpl, Executor executor) {
+		EachE<EntityT> eachFuncImpl = EachE.create(funcImpl);
+		parallel(slots.size(), executor, (from, to) -> {
+			for(int index = from; index < to; index++)
+				eachFuncImpl.invoke(setEntityT(entities.id(slots.get(index))));
+		});
+	}
+	
+	/**
+	 * Return identifiers of all component types emplaced so far, that are <code>supertype</code> itself or 
+	 * extend or implement it. Result is computed once per supertype and then updated by {@link #addSubtype(int)},
+	 * so polymorphic iteration visits only the storages of these types.
+	 */
+	@JECSApi(since = "0.2.0")
+	final synchronized int[] subtypes(Class<?> supertype) {
+		int[] types = subtypes.get(supertype);
+		if(types == null) {
+			types = emplacedTypes.stream().filter(type -> supertype.isAssignableFrom(ComponentType.type(type))).toArray();
+			subtypes.put(supertype, types);
+		}
+		return types;
+	}
+	
+	/**
+	 * Remember that component <code>type</code> was emplaced for the first time and add it to already
+	 * computed subtypes of its supertypes.
+	 */
+	@JECSApi(since = "0.2.0")
+	private synchronized void addSubtype(int type) {
+		emplacedTypes.set(type);
+		Class<?> componentT = ComponentType.type(type);
+		for(Entry<Class<?>, int[]> entry : subtypes.entrySet()) {
+			if(entry.getKey().isAssignableFrom(componentT)) {
+				int[] types = Arrays.copyOf(entry.getValue(), entry.getValue().length + 1);
+				types[types.length - 1] = type;
+				entry.setValue(types);
+			}
+		}
+	}
+	
+	/**
+	 * Return true if at least one of <code>types</code> is stored off-heap.
+	 */
+	private boolean anyOffHeap(int[] types) {
+		for(int i = 0; i < types.length; i++)
+			if(offHeapOf(types[i]) != null)
+				return true;
 		return false;
 	}
 	
 	/**
-	 * Check if this entity type is Long (long) = 64 bit int.
+	 * Remove the component of <code>type</code> from entity in <code>slot</code>, from its storage, sequence 
+	 * and mask.
+	 * 
+	 * @return The removed component, or null if entity doesn't have a component of this type.
+	 */
+	@JECSApi(since = "0.2.0")
+	private Component removeComponent(int slot, int type) {
+		if(listened(DESTROY, type) && masks.contains(slot, type))
+			publish(DESTROY, type, slot, componentOf(slot, type));
+		
+		Component component;
+		OffHeapPool<Component> components = offHeapOf(type);
+		if(components != null) {
+			component = components.get(slot);
+			components.remove(slot);
+		} else {
+			// Owning groups move the entity out of their packed range before the pool moves its last one.
+			for(int i = 0; i < owningGroups.size(); i++)
+				if(ComponentMasks.contains(owningGroups.get(i).mask, type))
+					owningGroups.get(i).leave(slot);
+			component = storage.remove(slot, type);
+			if(component != null) {
+				container[slot].erase(component);
+				owners.remove(component, slot);
+			}
+		}
+		
+		if(component != null) {
+			masks.unset(slot, type);
+			changesOf(type).remove(slot, entities.id(slot), tick);
+			onRemove(slot, type);
+		}
+		return component;
+	}
+	
+	/**
+	 * Add entity in <code>slot</code> that just got a component of <code>type</code> to registered groups
+	 * and views, if it has all of their components now, and remove it from groups that exclude this type.
+	 */
+	@JECSApi(since = "0.2.0")
+	private void onEmplace(int slot, int type) {
+		for(int i = 0; i < groups.size(); i++) {
+			Group<EntityT, Component> group = groups.get(i);
+			if(ComponentMasks.contains(group.exclude, type))
+				group.slots.remove(slot);
+			else if(ComponentMasks.contains(group.mask, type) && matches(slot, group))
+				group.slots.add(slot);
+		}
+		for(int i = 0; i < owningGroups.size(); i++) {
+			OwningGroup<EntityT, Component> group = owningGroups.get(i);
+			if(ComponentMasks.contains(group.mask, type) && masks.containsAll(slot, group.mask))
+				group.enter(slot);
+		}
+		for(int i = 0; i < views.size(); i++)
+			if(views.get(i).type == type)
+				views.get(i).slots.add(slot);
+	}
+	
+	/**
+	 * Remove entity in <code>slot</code> that just lost a component of <code>type</code> from registered
+	 * groups and views with this component, and add it to groups that exclude this type if it matches now.
+	 */
+	@JECSApi(since = "0.2.0")
+	private void onRemove(int slot, int type) {
+		for(int i = 0; i < groups.size(); i++) {
+			Group<EntityT, Component> group = groups.get(i);
+			if(ComponentMasks.contains(group.mask, type))
+				group.slots.remove(slot);
+			else if(ComponentMasks.contains(group.exclude, type) && matches(slot, group))
+				group.slots.add(slot);
+		}
+		for(int i = 0; i < views.size(); i++)
+			if(views.get(i).type == type)
+				views.get(i).slots.remove(slot);
+	}
+	
+	/**
+	 * Returns true if entity in <code>slot</code> has all components of the <code>group</code> and none
+	 * of its excluded components.
+	 */
+	@JECSApi(since = "0.2.0")
+	private boolean matches(int slot, Group<EntityT, Component> group) {
+		return masks.containsAll(slot, group.mask) && !masks.containsAny(slot, group.exclude);
+	}
+	
+	/**
+	 * Returns iterator over entities of <code>slots</code> from the last one to the first one. Entity can be 
+	 * removed from slots during iteration, because only the already visited entity moves to its place.
 	 */
-	private final boolean isInt64() {
-		if(Long.class.isAssignableFrom(entityType))
-			return true;
-		return false;
+	@JECSApi(since = "0.2.0")
+	final Iterator<EntityT> iterator(SlotSet slots) {
+		return new Iterator<EntityT>() {
+			int index = slots.size();
+			
+			@Override
+			public boolean hasNext() {
+				return Math.min(index, slots.size()) > 0;
+			}
+			
+			@Override
+			public EntityT next() {
+				index = Math.min(index, slots.size()) - 1;
+				if(index < 0)
+					throw new NoSuchElementException();
+				return setEntityT(entities.id(slots.get(index)));
+			}
+		};
 	}
 	
 	/**
-	 * Assigment operator for EntityT. Set the value depending on EntityT.
+	 * {@link #create()}. Takes the released slot or the new one and creates generational identifier 
+	 * for it. If {@link Context#ctxRandomEntityGenerator} is enabled a new slot starts from random 
+	 * version, otherwise from zero, so identifiers are incremental.
+	 * 
+	 * @return New entity identifier already assigned to container.
+	 * 
+	 * @throws JECSException if all entity indices are in use.
 	 */
-	@SuppressWarnings("unchecked")
-	private final EntityT setEntityT(long v) {
-		return isInt16() ? (EntityT) Short.valueOf((short)v) : isInt32() ? (EntityT) Integer.valueOf((int)v) : (EntityT)Long.valueOf(v);
+	@JECSApi(since = "0.1.0, last = 0.2.0")
+	final long create0() {
+		long entity = entities.create(context.ctxRandomEntityGenerator ? randomEngine.nextInt() : 0);
+		if(entity == -1)
+			throw new JECSException("Cannot create entity, all " + entities.limit() + " entity indices are in use.");
+		
+		currentEmplacedEntity = entity;
+		int slot = entities.slot(entity);
+		if(slot >= container.length)
+			container = Arrays.copyOf(container, entities.capacity());
+		return entity;
 	}
 	
 	/**
-	 * Assigment operator for EntityT.Set the string value depending on EntityT.
+	 * Assign <code>entity</code> identifier to the set of entities, without any checks.
+	 * 
+	 * @return The slot of inserted entity.
 	 */
-	@SuppressWarnings("unchecked")
-	private final EntityT setEntityT(String s) {
-		return isInt16() ? (EntityT) Short.valueOf(s) : isInt32() ? (EntityT) Integer.valueOf(s) : (EntityT)Long.valueOf(s);
+	@JECSApi(since = "0.2.0")
+	final int insert0(long entity) {
+		currentEmplacedEntity = entity;
+		int slot = entities.add(entity);
+		if(slot >= container.length)
+			container = Arrays.copyOf(container, entities.capacity());
+		return slot;
 	}
 	
 	/**
-	 * {@link #create()}.
+	 * Destroy <code>entity</code> associated with all components, without validation of identifier.
+	 * 
+	 * @throws JECSException if try to destory unexisting entity.
 	 */
-	@JECSApi(since = "0.1.0")
-	private final EntityT create0() {
-		EntityT entity = generateEntity();
-		if(entity.intValue() < 0) {
-			if(isInt16()) {
-				if(entity.shortValue() > context.ctxMaxEntitiesInt16) return create();
-			} else if(isInt32()) {
-				if(entity.intValue()   > context.ctxMaxEntitiesInt32) return create();
-			} else if(isInt64()) {
-				if(entity.longValue()  > context.ctxMaxEntitiesInt64) return create();
-			}
-		}
+	@JECSApi(since = "0.2.0")
+	final void destroy0(long entity) throws JECSException {
+		int slot = entities.slot(entity);
+		if(slot == -1)
+			throw new JECSException("Attempt to remove uncreated entity.");
 		
-		if(container.containsKey(entity)) {
-			// If entity id already created its destroyed and recreates.
-			try {
-				destroy(entity);
-			} catch (JECSException e) {
-				e.printStackTrace();
-			}
-			return create();
+		// Remove all components from this entity.
+		for(int type = 0; type < sinks[DESTROY].length; type++)
+			if(listened(DESTROY, type) && masks.contains(slot, type))
+				publish(DESTROY, type, slot, componentOf(slot, type));
+		
+		ComponentSequence<Component> components = container[slot];
+		for(int type = 0; type < changes.length; type++)
+			if(changes[type] != null && masks.contains(slot, type))
+				changes[type].remove(slot, entity, tick);
+		for(int i = 0; i < owningGroups.size(); i++)
+			owningGroups.get(i).leave(slot);
+		if(components != null) {
+			for(int i = 0; i < components.size(); i++)
+				owners.remove(components.get(i), slot);
+			storage.destroy(slot, components);
+			components.clear();
 		}
-		return entity;
+		for(int type = 0; type < offHeap.length; type++)
+			if(offHeap[type] != null)
+				offHeap[type].remove(slot);
+		masks.clear(slot);
+		
+		entities.remove(entity);
+		for(int i = 0; i < groups.size(); i++)
+			groups.get(i).slots.remove(slot);
+		for(int i = 0; i < views.size(); i++)
+			views.get(i).slots.remove(slot);
+		
+		entityCount = entities.size() - 1;
 	}
 	
 	/**
-	 * Creates new entity identifier. In more detail, it generates a random number in 
-	 * the range MAX_ENTITIES, which will be recognized by the handler as an valid entity.
-	 * <p>
-	 * If an entity with this identifier already exists in the handler, it will delete it and
-	 * recreate as empty entity.
+	 * Creates new entity identifier. In more detail, identifier is composed from the index of entity 
+	 * (released indices are reused) and the version of that index, which increases each time the entity
+	 * with this index is destroyed. So creation never collides with existing entities and old identifiers
+	 * of destroyed entities are not recognized by {@link #contains(Number)} or {@link #isValid(Number)}.
 	 * <p>
 	 * Example:
 	 * <blockquote><pre>
@@ -1005,16 +3244,16 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	public final EntityT create() {	
 
 		// Insert entity id and count in global order.
-		EntityT entity = create0();
-		return insert(entity, entityCount++); 	
+		long entity = create0();
+		entityCount++;
+		return setEntityT(entity);
 	}
 	
 	/**
-	 * Creates new entity identifier. In more detail, it generates a random number in 
-	 * the range MAX_ENTITIES, which will be recognized by the handler as an valid entity.
-	 * <p>
-	 * If an entity with this identifier already exists in the handler, it will delete it and
-	 * recreate as empty entity.
+	 * Creates new entity identifier. In more detail, identifier is composed from the index of entity 
+	 * (released indices are reused) and the version of that index, which increases each time the entity
+	 * with this index is destroyed. So creation never collides with existing entities and old identifiers
+	 * of destroyed entities are not recognized by {@link #contains(Number)} or {@link #isValid(Number)}.
 	 * <p>
 	 * This create accept in parameter {@link ICreate} to send information about entity creation.
 	 * <p>
@@ -1031,10 +3270,8 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	 */
 	@JECSApi(since = "0.1.5")
 	public final EntityT create(ICreate<EntityT> func) {
-		EntityT entity = create0();
-		
 		// Insert entity id and count in global order.
-		entity = insert(entity, entityCount++);
+		EntityT entity = create();
 		Create<EntityT> funcImpl = Create.create(func);
 		funcImpl.invoke(entity);
 		return entity;
@@ -1073,14 +3310,10 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	@JECSApi(since = "0.1.2")
 	public final EntityT insert(EntityT entity, int globalOrder) {
 		if(contains(entity))
-			return insert(generateEntity(), globalOrder == 1 ? entityCount++ : globalOrder);
+			return setEntityT(create0());
 		
-		currentEmplacedEntity = entity;
-		entities.add(entity);
-		
-		// Create components array represents component as data structure for entity.
-		ComponentSequence<Component> components = new ComponentSequenceImpl<Component>();
-		container.put(entity, components);
+		// Components sequence of the entity will be created on first emplace.
+		insert0(entity.longValue());
 		return entity;
 	}
 	
@@ -1120,7 +3353,6 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	 * 
 	 * @throws JECSException if try to destory unexisting entity.
 	 */
-	@SuppressWarnings("unchecked")
 	@JECSApi(since = "0.1.0")
 	public final EntityT destroy(EntityT entity)  
 			throws JECSException {
@@ -1128,30 +3360,10 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 		if(NullEntity.class.isAssignableFrom(entity.getClass()))
 			throw new JECSException("NullEntity is not destroyable. Make sure that NullEntity was converted to entity."); 
 		
-		// Remove all components from this entity.
-		ComponentSequence<Component> components = container.get(entity);
-		for(int i = 0; i < components.size(); i++) {
-			Class<? extends Component> componentT = (Class<? extends Component>) components.get(i).getClass();
-			erase(entity, componentT);
-		}
-		
-		pool.clear();
-		container.remove(entity, components);
-		entities.remove(entity);
-		if(group.pool.contains(entity))
-			group.pool.remove(entity);
-		if(view.pool.contains(entity))
-			view.pool.remove(entity);
-		
-		entityCount = entities.size() - 1;
+		destroy0(entity.longValue());
 		
 		// Is entity doesn't exist, that its succesfful removed and retuned -1. 
-		if(!container.containsKey(entity)) {
-			Integer answer = -1;	
-			entity = (EntityT) answer;
-		}
-			
-		return entity;
+		return setEntityT(-1);
 	}
 	
 	/**
@@ -1215,41 +3427,16 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	 */
 	@JECSApi(since = "0.1.0")
 	public final void destroyAll() throws JECSException {
-		EntityT entity = setEntityT(0);
-		ComponentSequence<Component> components = null;
-		
 		while(!empty()) {
-			Iterator<EntityT> enttItr = container.keySet().iterator();
-			while(enttItr.hasNext()) {
-				entity = enttItr.next();
-				
-				if(entity.intValue() <= -1) {
-					if(isNullEntity(entity))
-						throw new JECSException("Attempt to remove NULL_ENTITY.");
-					
-					throw new JECSException("Attempt to remove unvalid entity.");
-				}
-					
+			long entity = entities.get(entities.size() - 1);
+			if(entity <= -1) {
+				if(isNullEntity(setEntityT(entity)))
+					throw new JECSException("Attempt to remove NULL_ENTITY.");
 				
-				if(!container.containsKey(entity))
-					throw new JECSException("Attempt to remove uncreated entity.");
-
-				//remove all components from this entity.
-				components = container.get(entity);
-				if(!components.isEmpty()) {
-					@SuppressWarnings("unchecked")
-					Class<? extends Component> componentT = (Class<? extends Component>) components.get(0).getClass();
-					erase(entity, componentT);
-				}
-
-				components.clear();	
-				break;
+				throw new JECSException("Attempt to remove unvalid entity.");
 			}
 			
-			pool.clear();
-			container.remove(entity, components);
-			entities.remove(entity);
-			entityCount = entities.size() - 1;
+			destroy0(entity);
 		}
 		pop();
 	}
@@ -1272,17 +3459,21 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	@JECSApi(since = "0.1.1")
 	public final int destroyInRange(int minRange, int maxRange) {
 		int totalRemoved = 0;
+		minRange = Math.max(minRange, 0);
+		maxRange = Math.min(maxRange, entities.size() - 1);
+		if(minRange > maxRange)
+			return totalRemoved;
 		
-		for(var entity : this.entities) {
-			if(entities.indexOf(entity) >= minRange && 
-					entities.indexOf(entity) <= maxRange) {
-				try {
-					destroy(entity);
-					totalRemoved++;
-				} catch (JECSException e) { e.printStackTrace();}
-			}
-			
-			continue;
+		// Copy the range first, because destroying entity moves the last one to its index.
+		long[] range = new long[maxRange - minRange + 1];
+		for(int i = 0; i < range.length; i++)
+			range[i] = entities.get(minRange + i);
+		
+		for(var entity : range) {
+			try {
+				destroy(setEntityT(entity));
+				totalRemoved++;
+			} catch (JECSException e) { e.printStackTrace();}
 		}
 		return totalRemoved;
 	}
@@ -1298,7 +3489,7 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	@JECSApi(since = "0.1.1")
 	@BetaFeature
 	public final EntityT destroyFirst() throws JECSException { 
-		return destroy(entities.get(0));
+		return destroy(setEntityT(entities.get(0)));
 	}
 	
 	/**
@@ -1312,7 +3503,7 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	@JECSApi(since = "0.1.1")
 	@BetaFeature
 	public final EntityT destroyLast() throws JECSException { 
-		return destroy(entities.get(entities.size() - 1)); 
+		return destroy(setEntityT(entities.get(entities.size() - 1))); 
 	}
 	
 	/**
@@ -1381,6 +3572,12 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 		else if(args[0] == NULL_ARGS) 
 			isNullArgs = true;
 		
+		// Constructor for this signature of arguments was already resolved, so skip all reflection.
+		List<Class<?>> signature = ComponentFactory.signature(args, isNullArgs);
+		ComponentFactory factory = ComponentFactory.get(componentT, signature);
+		if(factory != null)
+			return (C) factory.newInstance(args);
+		
 		// Inner and NULL arguments situation.
 		if(isNullArgs && isInnerClass) {
 			finalCtorArgs = new Class<?>[1];
@@ -1491,57 +3688,14 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 		} else {
 			//Constructing stage for NULL:
 			Constructor<?> ctor = componentT.getDeclaredConstructors()[0];
-			ctor.setAccessible(true);
-			if(isInnerClass && !isInnerStaticClass) {
-				Object[] argss = getInnerObjects(args, finalCtorArgs, isNullArgs);;
-				return (C) ctor.newInstance(argss);
-			} else 
-				return (C) ctor.newInstance((Object[])null);
+			Class<?> enclosing = isInnerClass && !Modifier.isStatic(componentT.getModifiers()) ? finalCtorArgs[0] : null;
+			return (C) ComponentFactory.put(componentT, signature, ctor, enclosing, isNullArgs).newInstance(args);
 		}
 		
 		//Constructing stage:
 		Constructor<?> ctor = componentT.getDeclaredConstructor(finalCtorArgs);
-		ctor.setAccessible(true);
-		if(isInnerClass && !isInnerStaticClass) {
-			Object[] argss = getInnerObjects(args, finalCtorArgs, isNullArgs);
-			return (C) ctor.newInstance(argss);
-		} else 
-			return (C) ctor.newInstance(args);
-	}
-	
-	private Object[] getInnerObjects(Object[] args, Class<?>[] finalCtorArgs, boolean isNullArgs) throws InstantiationException, IllegalAccessException, 
-		IllegalArgumentException, InvocationTargetException, SecurityException, ClassNotFoundException {
-		// Split main full inner class name to each sub-inner classes and put values in array.
-		String[] innerClassesNames = finalCtorArgs[0].getName().split("\\$");
-
-		// Construct all inner classes from 'first top' to 'last inner'.
-		Object inner = null;
-		for(int i = 0; i < innerClassesNames.length; i++) {
-			Constructor<?> innerCtor = null;
-			if(i == 0) {
-				innerCtor = Class.forName(innerClassesNames[i]).getDeclaredConstructors()[0];
-				inner = innerCtor.newInstance((Object[])null);
-				continue;
-			} else {
-				innerClassesNames[0] += "$" + innerClassesNames[i];
-				innerCtor = Class.forName(innerClassesNames[0]).getDeclaredConstructors()[0];
-				inner = innerCtor.newInstance(inner);
-			}
-			
-		}
-		
-		// Adding the inner class to the main arguments by redefining the 'args' array.
-		Object[] argss;
-		if(!isNullArgs) {
-			argss = new Object[args.length + 1];
-			argss[0] = inner;
-			for(int i = 1; i < argss.length; i++) 
-				argss[i] = args[i - 1];
-		} else {
-			argss = new Object[1];
-			argss[0] = inner;
-		}
-		return argss;
+		Class<?> enclosing = isInnerClass && !isInnerStaticClass ? finalCtorArgs[0] : null;
+		return (C) ComponentFactory.put(componentT, signature, ctor, enclosing, isNullArgs).newInstance(args);
 	}
 	
 	/**
@@ -1574,30 +3728,32 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 			throw new JECSException("Cannot emplace not initialized component!");
 		
 		// Check if C component is instance and not a class type. If class type we change the overload.
-		if(component.getClass().getTypeName().contains("java.lang.Class"))
+		if(component instanceof Class)
 			return emplace(entity, (Class<C>) component, NULL_ARGS);
 		
 		validationCheck(entity, "emplace component to");
-		if(!contains(entity))
+		int slot = slotOf(entity);
+		if(slot == -1)
 			return null;
 		
-		if(has(entity, component))
+		int type = ComponentType.id(component.getClass());
+		if(masks.contains(slot, type))
 			throw new JECSException("Component with type <" + component.getClass().getTypeName() + "> already existing!" );
 		
-		ComponentSequence< Component> components = container.get(entity);
-		components.emplace(component);
-		
-		// Check if poll has C type of component. And add new pair with entity-component.
-		List<Pair<EntityT, Component>> pairs = null;
-		if(pool.containsKey(component.getClass())) {
-			pairs = pool.get(component.getClass());
-			pairs.add(new Pair<EntityT, Component>(entity, (Component) component.getClass()));
-		// Otherwise create new list with pairs and add new pair with entity-component and then put it in to poll.
+		OffHeapPool<Component> components = assureOffHeap(component.getClass(), type);
+		if(components != null) {
+			components.emplace(slot, component);
 		} else {
-			pairs = new ArrayList<Pair<EntityT, Component>>();
-			pairs.add(new Pair<EntityT, Component>(entity, (Component) component.getClass()));
-			pool.put((Class<Component>) component.getClass(), pairs);
+			sequence(slot).emplace(component);
+			storage.emplace(slot, type, component);
+			owners.put(component, slot);
 		}
+		masks.set(slot, type);
+		changesOf(type).add(slot, tick);
+		if(!emplacedTypes.get(type))
+			addSubtype(type);
+		onEmplace(slot, type);
+		publish(CONSTRUCT, type, slot, component);
 		return component;
 	}
 	
@@ -1650,7 +3806,7 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	public final <C extends Component> C emplace(EntityT entity, Class<C> componentT, Object... args) 
 			throws JECSException {
 		try {
-			currentEmplacedEntity = entity;
+			currentEmplacedEntity = idOf(entity);
 			return emplace(entity, (C) constructFromArgs(componentT, args));
 		} catch (NoSuchMethodException | SecurityException | ClassNotFoundException | 
 				InstantiationException | IllegalAccessException | IllegalArgumentException | 
@@ -1707,8 +3863,9 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	@SuppressWarnings("unchecked")
 	@JECSApi(since = "0.1.8", funcDesc = "emplace ComponentSequence")
 	public final void emplaceEmptySequence(EntityT entity, final ComponentSequence<?> components) {
-		if(container.get(entity) == null || container.get(entity).isEmpty()) 
-			container.put(entity, (ComponentSequence<Component>) components);
+		int slot = slotOrThrow(entity);
+		if(container[slot] == null || container[slot].isEmpty()) 
+			container[slot] = (ComponentSequence<Component>) components;
 	}
 	
 	/**
@@ -1756,35 +3913,30 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	@JECSApi(since = "0.1.7")
 	public <C extends Component> C replace(EntityT entity, C component) throws JECSException {
 		try {
-			if(contains(entity)) {
-				ComponentSequence<Component> components = container.get(entity);
-				C oldComponent = get(entity, component.getClass());
-				int replacedIdx = components.indexOf(oldComponent);
-				components.remove(replacedIdx);
-				components.add(replacedIdx, component);
-				
-				// Replace component for the pool.
-				@SuppressWarnings("unchecked")
-				Class<Component> type = (Class<Component>) component.getClass();
-				List<Pair<EntityT, Component>> pairs = pool.get(type);
-				for(Pair<EntityT, Component> pair : pairs) {
-					if(isInt16()) {
-						if(pair.first.shortValue() == entity.shortValue()) {
-							pair.second = component;
-							break;
-						}
-					} else if(isInt32()) {
-						if(pair.first.intValue() == entity.intValue()) {
-							pair.second = component;
-							break;
-						}
-					} else if(isInt64()) {
-						if(pair.first.longValue() == entity.longValue()) {
-							pair.second = component;
-							break;
-						}
+			int slot = slotOf(entity);
+			if(slot != -1) {
+				int type = ComponentType.id(component.getClass());
+				OffHeapPool<Component> offHeapComponents = offHeapOf(type);
+				if(offHeapComponents != null) {
+					@SuppressWarnings("unchecked")
+					C oldComponent = (C) offHeapComponents.get(slot);
+					if(offHeapComponents.write(slot, component)) {
+						changesOf(type).change(slot, tick);
+						publish(UPDATE, type, slot, component);
 					}
+					return oldComponent;
 				}
+				
+				C oldComponent = get(entity, component.getClass());
+				
+				// Replace component in the pool and at the same place in sequence.
+				ComponentSequence<Component> components = container[slot];
+				components.set(components.indexOf(oldComponent), component);
+				storage.replace(slot, type, component);
+				owners.remove(oldComponent, slot);
+				owners.put(component, slot);
+				changesOf(type).change(slot, tick);
+				publish(UPDATE, type, slot, component);
 				return oldComponent;
 			}
 		} catch ( SecurityException | IllegalArgumentException e) { e.printStackTrace(); };
@@ -1912,14 +4064,10 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 			throws JECSException {
 		validationCheck(entity, "erase component from");
 		
-		if(!has(entity, componentT))
+		Component component = removeComponent(slotOf(entity), ComponentType.id(componentT));
+		if(component == null)
 			throw new JECSException("Cannot to remove non-existing component!");
-		
-		ComponentSequence<Component> components = container.get(entity);
-		C component = get(entity, componentT), componentInst = null;
-		componentInst = component;
-		components.erase(component);
-		return componentInst;
+		return component;
 	}
 	
 	/**
@@ -1969,14 +4117,9 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	@JECSApi(since = "0.1.2")
 	public final <C extends Component> Component remove(EntityT entity, Class<C> componentT)
 			throws JECSException {
-		if(has(entity, componentT)) {
-			ComponentSequence<Component> components = container.get(entity);
-			C component = get(entity, componentT), componentInst = null;
-			componentInst = component;
-			components.erase(component);
-			return componentInst;
-		}
-		return null;
+		validationCheck(entity, "remove from");
+		
+		return removeComponent(slotOf(entity), ComponentType.id(componentT));
 	}
 	
 	/**
@@ -2000,7 +4143,7 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	 */
 	@JECSApi(since = "0.1.2")
 	public <C extends Component> void removeAll(EntityT entity) {
-		ComponentSequence<Component> components = container.get(entity);
+		ComponentSequence<Component> components = sequence(slotOrThrow(entity));
 		while(!components.isEmpty()) {
 			@SuppressWarnings("unchecked")
 			Class<? extends Component> componentT = (Class<? extends Component>) components.get(0).getClass();
@@ -2032,12 +4175,10 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	public <C extends Component> void removeIfExist(EntityT entity, Class<?>... componentTs) 
 			throws JECSException {
 		validationCheck(entity, "remove from");
-		if(container.containsKey(entity)) {			
-			for(int i = 0; i < componentTs.length; i++) {
-				@SuppressWarnings("unchecked")
-				Class<? extends C> componentT = (Class<? extends C>) componentTs[i]; 
-				container.get(entity).erase(get(entity, componentT));
-			}
+		int slot = slotOf(entity);
+		if(slot != -1) {			
+			for(int i = 0; i < componentTs.length; i++)
+				removeComponent(slot, ComponentType.id(componentTs[i]));
 		}
 	}
 
@@ -2061,14 +4202,8 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	public synchronized <C extends Component> void invoke(EntityT entity, Class<C> componentT, String funcName,
 			Object... funcArgs) throws JECSException {		
 		try  {
-			Class<?>[] funcArgsTypes = new Class<?>[funcArgs.length]; 
-			for(int t = 0; t < funcArgs.length; t++) 
-				funcArgsTypes[t] = sortR(funcArgs[t].getClass().getTypeName(), funcArgs[t].getClass());
-			
-			Method func = componentT.getMethod(funcName, funcArgsTypes);
-			func.setAccessible(true);
-			func.invoke(get(entity, componentT), funcArgs);
-			
+			MethodHandle func = ComponentMethods.get(componentT, funcName, funcArgs, false);
+			ComponentMethods.invoke(func, get(entity, componentT), funcArgs);
 		} catch (NoSuchMethodException | SecurityException | IllegalAccessException |
 				IllegalArgumentException | InvocationTargetException e) 
 					{ e.printStackTrace();}
@@ -2131,8 +4266,9 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 			Object... funcArgs) throws JECSException {
 		try {
 			// For each checks if comp subclass of componentT.
-			for(int i = 0; i < container.get(entity).size(); i++) {
-				Component child = container.get(entity).get(i);
+			ComponentSequence<Component> components = sequence(slotOrThrow(entity));
+			for(int i = 0; i < components.size(); i++) {
+				Component child = components.get(i);
 				if(safeAsSubClass(child.getClass(), componentT, "", false) != null) {
 					invoke(entity, (Class<C>)child.getClass(), funcName, funcArgs);
 				}
@@ -2141,6 +4277,45 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 			{ e.printStackTrace();}
 	}
 	
+	/**
+	 * This method invoke function/method from each <code>C</code> component (or its subclass) of all entities. 
+	 * Unlike calling {@link #invoke(Number, Class, String, Object...)} for each entity, the method is resolved 
+	 * only once by <code>componentT</code> and then called for every matching component, so its the fastest 
+	 * way to call the same method of many components by name.
+	 * <p>
+	 * Example:
+	 * <pre>
+	 * while(running)
+	 *     system.invokeAll(ScriptComponent.class, "update", deltaTime);
+	 * </pre>
+	 * 
+	 * @param <C> Component type.
+	 * @param componentT - The component base that for each of it subclass the function will be called from.
+	 * @param funcName - Name of public function/method of <code>componentT</code> which will be called.
+	 * @param funcArgs - Arguments to function/method.
+	 * 
+	 * @return Number of components the function was called from.
+	 */
+	@JECSApi(since = "0.2.0", funcDesc = "invoke for all entities")
+	public synchronized <C extends Component> int invokeAll(Class<C> componentT, String funcName, Object... funcArgs) {
+		MethodHandle func;
+		try {
+			func = ComponentMethods.get(componentT, funcName, funcArgs, false);
+		} catch (NoSuchMethodException | SecurityException | IllegalAccessException e) { 
+			e.printStackTrace();
+			return 0;
+		}
+		
+		int[] invoked = { 0 };
+		each(componentT, (entity, component) -> {
+			try {
+				ComponentMethods.invoke(func, component, funcArgs);
+				invoked[0]++;
+			} catch (InvocationTargetException e) { e.printStackTrace(); }
+		});
+		return invoked[0];
+	}
+	
 	/**
 	 * Compare class a with other class b. If it equals return true, otherwise false.
 	 * 
@@ -2209,9 +4384,10 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	 * This method is usually the best and fastest choise, and very effective than {@link #invokeEach(Number, Class, String, Object...)}
 	 * and {@link #invokeEachPack(Object[], String, Object...)}.
 	 * <p>
-	 * If some entity component(s) in sequence of components will not be sub-component of <code>componentT</code>, it just skip it and return 
-	 * <code>null</code> instance. This will not affect the iteration process, but it will not be called for this component
-	 * {@link IEach#invoke(int, Object)} implementation function.
+	 * Entities are visited in the order of entities container, so the order set by {@link #sort(ISort)} or 
+	 * {@link #sort(Class, ISortC)} is kept. The system keeps the index of emplaced sub-component types for each queried 
+	 * <code>componentT</code>, so entities without any of them are skipped by their component mask and only the components 
+	 * of entities that has one are checked.
 	 * <p>
 	 * Example:
 	 * <pre>
@@ -2225,23 +4401,22 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	 * @param componentT - Component as super-component.
 	 * @param funcImpl - {@link IEach} function interface, or lambda expression.
 	 */
+	@SuppressWarnings("unchecked")
 	@JECSApi(since = "0.1.5", funcDesc = "each for all entities with c & sub-c")
-	public synchronized <C extends Component> void each(Class<C> componentT, IEach<EntityT, C> funcImpl) 
+	public <C extends Component> void each(Class<C> componentT, IEach<EntityT, C> funcImpl) 
 			throws JECSException {
-		Each<EntityT, C> eachFuncImpl = Each.create(funcImpl);
-		Iterator<EntityT> itr = (Iterator<EntityT>) entities.iterator();
-		
-		while(itr.hasNext()) {
-			var entity = itr.next();
-			for(int componentIndex = 0; componentIndex < size(entity); componentIndex++) {
-				C component = safeAsSubClass(container.get(entity).get(componentIndex).getClass(), componentT, "", false) != null 
-					? get(entity, container.get(entity).get(componentIndex).getClass()) 
-					: null;
-				
-				if(component != null)
-					eachFuncImpl.invoke(entity, component);
+		iterate(() -> {
+			Each<EntityT, C> eachFuncImpl = Each.create(funcImpl);
+			OffHeapPool<Component> offHeapComponents = offHeapOf(ComponentType.id(componentT));
+			if(offHeapComponents != null) {
+				eachOffHeap(offHeapComponents, eachFuncImpl);
+				return;
 			}
-		}
+		
+			int[] types = subtypes(componentT);
+			eachSubtype(0, entities.size(), ComponentMasks.mask(types), offHeapPools(types), 
+				(slot, component) -> eachFuncImpl.invoke(setEntityT(entities.id(slot)), (C) component));
+		});
 	}
 	
 	/**
@@ -2284,19 +4459,25 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	 */
 	@BetaFeature
 	@JECSApi(since = "0.1.5", funcDesc = "each for all entities with any c")
-	public synchronized <C extends Component> void each(IEachC<EntityT, C> funcImpl) 
+	public <C extends Component> void each(IEachC<EntityT, C> funcImpl) 
 			throws JECSException {
-		EachC<EntityT, C> eachFuncImpl = EachC.create(funcImpl);
-		Iterator<EntityT> itr = entities.iterator();	
-		while(itr.hasNext()){
-			var entity = itr.next();
-			for(int componentIndex = 0; componentIndex < size(entity); componentIndex++) {
-				@SuppressWarnings("unchecked") //undifiend behaviour if Object not C.
-				C component = (C)getObject(entity, componentIndex);
-				if(component != null)
-					eachFuncImpl.invoke(entity, component);
+		iterate(() -> {
+			EachC<EntityT, C> eachFuncImpl = EachC.create(funcImpl);
+			for(int index = 0; index < entities.size(); index++) {
+				int slot = entities.slotAt(index);
+				ComponentSequence<Component> components = container[slot];
+				if(components == null || components.isEmpty())
+					continue;
+			
+				var entity = setEntityT(entities.id(slot));
+				for(int componentIndex = 0; componentIndex < components.size(); componentIndex++) {
+					@SuppressWarnings("unchecked") //undifiend behaviour if Object not C.
+					C component = (C)components.get(componentIndex);
+					if(component != null)
+						eachFuncImpl.invoke(entity, component);
+				}
 			}
-		}
+		});
 	}
 	
 	/**
@@ -2324,11 +4505,146 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	@JECSApi(since = "0.1.8", funcDesc = "iterate over each entity")
 	public void each(IEachE<EntityT> funcImpl) {
 		EachE<EntityT> eachFuncImpl = EachE.create(funcImpl);
-		Iterator<EntityT> itr = entities.iterator();
-		while(itr.hasNext()) {
-			var entity = itr.next();
-			eachFuncImpl.invoke(entity);
+		for(int index = 0; index < entities.size(); index++)
+			eachFuncImpl.invoke(setEntityT(entities.get(index)));
+	}
+	
+	/**
+	 * Parallel version of {@link #each(Class, IEach)} on the common {@link ForkJoinPool}. Dense array of entities
+	 * (or off-heap pool of <code>componentT</code>) is split into ranges and each range is iterated by its own task,
+	 * the method returns when all of them are done.
+	 * <p>
+	 * Callback is invoked from many threads at once, so it can change the state of its own component, but should
+	 * not emplace, erase or destroy anything and should not touch components of other entities without 
+	 * synchronization. Order of calls is not defined.
+	 * <p>
+	 * Example:
+	 * <pre>
+	 * system.parallelEach(Transform.class, (entity, transform) -> {
+	 *       transform.update(dt);
+	 * });
+	 * </pre>
+	 * 
+	 * @param <C> Component type.
+	 * @param componentT - Component as super-component.
+	 * @param funcImpl - {@link IEach} function interface, or lambda expression.
+	 */
+	@JECSApi(since = "0.2.0", funcDesc = "parallel each for all entities with c & sub-c")
+	public <C extends Component> void parallelEach(Class<C> componentT, IEach<EntityT, C> funcImpl) {
+		parallelEach(componentT, funcImpl, ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * Parallel version of {@link #each(Class, IEach)} on the given <code>executor</code>. See 
+	 * {@link #parallelEach(Class, IEach)}.
+	 */
+	@SuppressWarnings("unchecked")
+	@JECSApi(since = "0.2.0", funcDesc = "parallel each for all entities with c & sub-c")
+	public <C extends Component> void parallelEach(Class<C> componentT, IEach<EntityT, C> funcImpl, Executor executor) {
+		Each<EntityT, C> eachFuncImpl = Each.create(funcImpl);
+		OffHeapPool<Component> offHeapComponents = offHeapOf(ComponentType.id(componentT));
+		if(offHeapComponents != null) {
+			// Each range reuses its own instance, ranges never share positions of the columns.
+			parallel(offHeapComponents.size(), executor, (from, to) -> {
+				C component = (C) offHeapComponents.get(offHeapComponents.slot(from));
+				for(int index = from; index < to; index++) {
+					offHeapComponents.read(index, component);
+					eachFuncImpl.invoke(setEntityT(entities.id(offHeapComponents.slot(index))), component);
+					offHeapComponents.store(index, component);
+				}
+			});
+			return;
+		}
+		
+		// Like each(Class, IEach), but each range reads off-heap sub-components to its own instances.
+		int[] types = subtypes(componentT);
+		long[] mask = ComponentMasks.mask(types);
+		List<OffHeapPool<Component>> pools = offHeapPools(types);
+		parallel(entities.size(), executor, (from, to) -> eachSubtype(from, to, mask, pools, 
+			(slot, component) -> eachFuncImpl.invoke(setEntityT(entities.id(slot)), (C) component)));
+	}
+	
+	/**
+	 * Parallel version of {@link #each(IEachE)} on the common {@link ForkJoinPool}. See 
+	 * {@link #parallelEach(Class, IEach)} for restrictions of callback.
+	 * 
+	 * @param funcImpl - {@link IEachE} function interface, or lambda expression.
+	 */
+	@JECSApi(since = "0.2.0", funcDesc = "parallel iterate over each entity")
+	public void parallelEach(IEachE<EntityT> funcImpl) {
+		parallelEach(funcImpl, ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * Parallel version of {@link #each(IEachE)} on the given <code>executor</code>. See 
+	 * {@link #parallelEach(Class, IEach)} for restrictions of callback.
+	 */
+	@JECSApi(since = "0.2.0", funcDesc = "parallel iterate over each entity")
+	public void parallelEach(IEachE<EntityT> funcImpl, Executor executor) {
+		EachE<EntityT> eachFuncImpl = EachE.create(funcImpl);
+		parallel(entities.size(), executor, (from, to) -> {
+			for(int index = from; index < to; index++)
+				eachFuncImpl.invoke(setEntityT(entities.get(index)));
+		});
+	}
+	
+	/**
+	 * Returns a stream of all entities of this system. Stream is backed by the dense array of entities, it
+	 * knows its exact size and splits by halving the range, so <code>parallel()</code> streams scale without 
+	 * copying entities to intermediate lists.
+	 * <p>
+	 * Entities should not be created or destroyed until the stream is consumed.
+	 * <p>
+	 * Example:
+	 * <pre>
+	 * long count = system.entityStream().parallel().filter(e -> system.has(e, Enemy.class)).count();
+	 * </pre>
+	 */
+	@JECSApi(since = "0.2.0", funcDesc = "stream of entities")
+	public Stream<EntityT> entityStream() {
+		return StreamSupport.stream(new IndexSpliterator<EntityT>(index -> setEntityT(entities.get(index)), 
+			0, entities.size(), Spliterator.NONNULL | Spliterator.DISTINCT), false);
+	}
+	
+	/**
+	 * Returns a stream of all components of exactly <code>componentT</code> type. With {@link StorageMode#POOLS}
+	 * stream is backed by the pool of this type, with {@link StorageMode#ARCHETYPES} by the columns of the archetype
+	 * tables with this type, one table after another. Off-heap components are materialized as new objects, like {@link #get(Number, Class)} does.
+	 * <p>
+	 * Components should not be emplaced or removed until the stream is consumed.
+	 * <p>
+	 * Example:
+	 * <pre>
+	 * double health = system.stream(Health.class).parallel().mapToDouble(Health::value).sum();
+	 * </pre>
+	 * 
+	 * @param componentT - Class of component.
+	 */
+	@SuppressWarnings("unchecked")
+	@JECSApi(since = "0.2.0", funcDesc = "stream of components")
+	public <C extends Component> Stream<C> stream(Class<C> componentT) {
+		int type = ComponentType.id(componentT);
+		OffHeapPool<Component> offHeapComponents = offHeapOf(type);
+		if(offHeapComponents != null)
+			return StreamSupport.stream(new IndexSpliterator<C>(index -> (C) offHeapComponents.get(offHeapComponents.slot(index)), 
+				0, offHeapComponents.size(), Spliterator.NONNULL), false);
+		
+		if(storage instanceof PoolStorage) {
+			ComponentPool<Component> pool = ((PoolStorage<Component>) storage).pool(type);
+			if(pool == null)
+				return Stream.empty();
+			return StreamSupport.stream(new IndexSpliterator<C>(index -> (C) pool.component(index), 
+				0, pool.size(), Spliterator.NONNULL), false);
 		}
+		
+		// Archetype tables are not one dense array, so the column of each table with this type is streamed in turn.
+		return ((ArchetypeStorage<Component>) storage).archetypes().stream()
+			.filter(archetype -> archetype.size() != 0 && archetype.column(type) >= 0)
+			.flatMap(archetype -> {
+				int column = archetype.column(type);
+				return StreamSupport.stream(new IndexSpliterator<C>(row -> (C) archetype.get(row, column), 
+					0, archetype.size(), Spliterator.NONNULL), false);
+			});
 	}
 	
 	/**
@@ -2349,7 +4665,50 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	@SuppressWarnings("unchecked")
 	@JECSApi(since = "0.1.7", funcDesc = "range for each")
 	public <C extends Component> ComponentSequence<C> each(EntityT entity) {
-		return (ComponentSequence<C>) container.get(entity);
+		int slot = slotOf(entity);
+		return slot == -1 ? null : (ComponentSequence<C>) sequence(slot);
+	}
+	
+	/**
+	 * Iterates over off-heap <code>components</code> in pool order. One instance of component is reused for 
+	 * all entities: values are read into it before the callback and written back after it, so changes made by
+	 * callback are stored.
+	 */
+	@SuppressWarnings("unchecked")
+	private <C extends Component> void eachOffHeap(OffHeapPool<Component> components, Each<EntityT, C> eachFuncImpl) {
+		if(components.isEmpty())
+			return;
+		
+		C component = (C) components.get(components.slot(0));
+		for(int index = 0; index < components.size(); index++) {
+			int slot = components.slot(index);
+			components.read(index, component);
+			eachFuncImpl.invoke(setEntityT(entities.id(slot)), component);
+			
+			// Callback may remove the component, then the other one is at this index now.
+			if(index < components.size() && components.slot(index) == slot)
+				components.store(index, component);
+		}
+	}
+	
+	/**
+	 * Returns the off-heap pool of {@link OffHeap} component type for linear scans over its columns, or null
+	 * if no one component of this type was emplaced yet.
+	 * <p>
+	 * Example:
+	 * <pre>
+	 * var transforms = system.offHeap(Transform.class);
+	 * int x = transforms.field("x"), vx = transforms.field("vx");
+	 * for(int i = 0; i < transforms.size(); i++)
+	 *     transforms.setFloat(i, x, transforms.getFloat(i, x) + transforms.getFloat(i, vx) * dt);
+	 * </pre>
+	 * 
+	 * @param componentT - Class of component marked by {@link OffHeap}.
+	 */
+	@SuppressWarnings("unchecked")
+	@JECSApi(since = "0.2.0")
+	public <C extends Component> OffHeapPool<C> offHeap(Class<C> componentT) {
+		return (OffHeapPool<C>) offHeapOf(ComponentType.id(componentT));
 	}
 	
 	/**
@@ -2372,33 +4731,27 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	public <C extends Component> void sort(Class<C> component, ISortC<C> func) {
 		ISortC<C> funcImpl = SortC.create(func);
 		
-		// Store a all 'map' containes values in new storage 'pair' to we can sort it and iterate propertly.
-		RawPair[] storage = new RawPair[container.size()];
+		// Store entities with their C component in new storage 'pair' to we can sort it and iterate propertly.
+		RawPair[] storage = new RawPair[entities.size()];
 		for(int i = 0; i < storage.length; i++) {
-			var entity = this.entities.get(i);
-			storage[i] = new RawPair(entity, container.get(entity));
+			var entity = setEntityT(entities.get(i));
+			storage[i] = new RawPair(entity, tryGet(entity, component));
 		}
-			
 		
-		// 1) Get first  entity and component map and found component with type C.
-		// 2) Get second entity and component map and found component with type C.
-		// 3) Compare it, if equals swap two keys with its values around.
+		// 1) Get first  entity and its component with type C.
+		// 2) Get second entity and its component with type C.
+		// 3) Compare it, if equals swap two entities around.
 		
 		Arrays.sort(storage, new Comparator<RawPair>() {
 			public int compare(RawPair o1, RawPair o2) {
+				Component c1 = (Component) o1.second;
+				Component c2 = (Component) o2.second;
 				
-				ComponentSequence<Component> cs1 = (ComponentSequence<Component>) o1.second; 
-				ComponentSequence<Component> cs2 = (ComponentSequence<Component>) o2.second; 
-				if(cs1 != null && cs2 != null) {
-					Component c1 = tryGet((EntityT) o1.first, component);
-					Component c2 = tryGet((EntityT) o2.first, component);
-			
-					// Compare it.
-					if((c1 != null && c2 != null)) {
-						if(c1.getClass() == c2.getClass()) {
-							int result = funcImpl.invoke((C)c1, (C)c2);
-							return result;
-						}
+				// Compare it.
+				if((c1 != null && c2 != null)) {
+					if(c1.getClass() == c2.getClass()) {
+						int result = funcImpl.invoke((C)c1, (C)c2);
+						return result;
 					}
 				}
 				
@@ -2406,12 +4759,125 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 			}
 		});
 		
-		// Replace map values by new sorted from storage.
-		// This will reorder entities values if it was sorted by #sort(ISort).
-		for(int i = 0; i < this.container.size(); i++) {
-			this.entities.set(i, (EntityT)storage[i].first);
-			this.container.put((EntityT)storage[i].first, (ComponentSequence<Component>)storage[i].second);
-		}
+		// Replace order of entities by new sorted from storage. Components are stored by entity slot
+		// so they follow entities without copying.
+		// This will reorder entities values if it was sorted by #sort(ISort).
+		int[] slots = new int[storage.length];
+		for(int i = 0; i < storage.length; i++)
+			slots[i] = slotOf((EntityT)storage[i].first);
+		for(int i = 0; i < slots.length; i++)
+			entities.set(i, slots[i]);
+	}
+	
+	/**
+	 * Sorts the global container of entities-components by component order induced in {@link ISortC} callback, 
+	 * using the given <code>strategy</code>. See {@link #sort(Class, ISortC)} and {@link SortStrategy}.
+	 * <p>
+	 * Both strategies sort the entities container, so {@link #each(Class, IEach)}, {@link #get(Class)} and 
+	 * {@link #getAll(Class)} follow the new order. Off-heap components are compared by {@link SortStrategy#ADAPTIVE} 
+	 * through two reused instances, so comparisons don't allocate.
+	 * <p>
+	 * Example:
+	 * <code><pre>
+	 * // Most frames sprites are already in order, so only moved ones are compared more than once.
+	 * system.sort(Sprite.class, (a, b) -> a.layer - b.layer, SortStrategy.ADAPTIVE);
+	 * </code></pre>
+	 * @param func - Sorting callback.
+	 * @param strategy - Sort strategy.
+	 */
+	@SuppressWarnings("unchecked")
+	@JECSApi(since = "0.2.0", funcDesc = "sort entities by component order")
+	public <C extends Component> void sort(Class<C> component, ISortC<C> func, SortStrategy strategy) {
+		if(strategy == SortStrategy.ADAPTIVE) {
+			ISortC<C> funcImpl = SortC.create(func);
+			int type = ComponentType.id(component);
+			OffHeapPool<Component> offHeapComponents = offHeapOf(type);
+			IntBinaryOperator compare = (a, b) -> {
+				Object c1 = componentOf(a, type), c2 = componentOf(b, type);
+				return c1 != null && c2 != null ? funcImpl.invoke((C) c1, (C) c2) : 0;
+			};
+			if(offHeapComponents != null && !offHeapComponents.isEmpty()) {
+				// componentOf would read a new copy of off-heap component per comparison.
+				C left = (C) offHeapComponents.get(offHeapComponents.slot(0));
+				C right = (C) offHeapComponents.get(offHeapComponents.slot(0));
+				compare = (a, b) -> {
+					int c1 = offHeapComponents.index(a), c2 = offHeapComponents.index(b);
+					return c1 != -1 && c2 != -1 ? funcImpl.invoke((C) offHeapComponents.read(c1, (Component) left), 
+						(C) offHeapComponents.read(c2, (Component) right)) : 0;
+				};
+			}
+			if(insertionSort(compare))
+				return;
+		}
+		sort(component, func);
+	}
+	
+	/**
+	 * Sorts the storage of <code>componentT</code> components by <code>int</code> key of each component, from lower 
+	 * to higher, components with equal keys keep their order.
+	 * <p>
+	 * Unlike {@link #sort(Class, ISortC)} keys are extracted only once per component and sorted by radix sort
+	 * without comparisons, then components are moved directly in their dense storage (pool, archetype tables, or
+	 * off-heap pool), so nothing is allocated per entity. Order of entities container is not changed.
+	 * <p>
+	 * <code>stream(Class)</code>, <code>entitiesOf</code>, <code>first</code> and <code>last</code> read the storage, so
+	 * they follow the new order. With {@link StorageMode#ARCHETYPES} each archetype table is sorted on its own, so 
+	 * they are ordered only within each table and tables follow each other in the order they were created. 
+	 * <code>each</code> and <code>getAll</code> keep the order of entities container (<code>each</code> of exactly 
+	 * {@link OffHeap} type visits its pool, so it follows the new order), and views and groups keep their own order, 
+	 * including the ones created before the sort.
+	 * <p>
+	 * Example:
+	 * <code><pre>
+	 * system.sortByInt(Renderable.class, renderable -> renderable.depth);
+	 * </code></pre>
+	 * 
+	 * @param componentT - Type of sorted components.
+	 * @param key - Key of component.
+	 * 
+	 * @throws JECSException if components are owned by an owning group, it keeps its own order.
+	 */
+	@SuppressWarnings("unchecked")
+	@JECSApi(since = "0.2.0", funcDesc = "sort components by key")
+	public <C extends Component> void sortByInt(Class<C> componentT, ToIntFunction<? super C> key) {
+		sortBy(componentT, component -> RadixSort.key(key.applyAsInt((C) component)));
+	}
+	
+	/**
+	 * Sorts the storage of <code>componentT</code> components by <code>long</code> key of each component, 
+	 * see {@link #sortByInt(Class, ToIntFunction)}.
+	 */
+	@SuppressWarnings("unchecked")
+	@JECSApi(since = "0.2.0", funcDesc = "sort components by key")
+	public <C extends Component> void sortByLong(Class<C> componentT, ToLongFunction<? super C> key) {
+		sortBy(componentT, component -> RadixSort.key(key.applyAsLong((C) component)));
+	}
+	
+	/**
+	 * Sorts the storage of <code>componentT</code> components by <code>double</code> key of each component, 
+	 * see {@link #sortByInt(Class, ToIntFunction)}. NaN keys go last.
+	 */
+	@SuppressWarnings("unchecked")
+	@JECSApi(since = "0.2.0", funcDesc = "sort components by key")
+	public <C extends Component> void sortByDouble(Class<C> componentT, ToDoubleFunction<? super C> key) {
+		sortBy(componentT, component -> RadixSort.key(key.applyAsDouble((C) component)));
+	}
+	
+	/**
+	 * Sorts the storage of <code>componentT</code> components by unsigned keys made by {@link RadixSort}.
+	 */
+	@JECSApi(since = "0.2.0")
+	private void sortBy(Class<?> componentT, ToLongFunction<? super Component> key) {
+		int type = ComponentType.id(componentT);
+		for(int i = 0; i < owningGroups.size(); i++)
+			if(ComponentMasks.contains(owningGroups.get(i).mask, type))
+				throw new JECSException("Component with type <" + componentT.getName() + "> is owned by owning group and cannot be sorted.");
+		
+		OffHeapPool<Component> components = offHeapOf(type);
+		if(components != null)
+			components.sort(key, radixSort);
+		else
+			storage.sort(type, key, radixSort);
 	}
 	
 	/**
@@ -2430,17 +4896,60 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	@SuppressWarnings("unchecked")
 	public void sort(ISort<EntityT> func) {
 		ISort<EntityT> funcImpl = Sort.create(func);
-		var entitiesArray = entities.toArray();
+		var entitiesArray = entityList.toArray();
 		Arrays.sort(entitiesArray, new Comparator<Object>() {
 			public int compare(Object a, Object b) {
 				return funcImpl.invoke((EntityT)a, (EntityT)b);
 			}
 		});
 		
-		// Update the sorted entities list.
-		entities = new ArrayList<>();
+		// Update the sorted entities order.
+		int[] slots = new int[entitiesArray.length];
 		for(int i = 0; i < entitiesArray.length; i++) 
-			entities.add((EntityT) entitiesArray[i]);
+			slots[i] = slotOf((EntityT) entitiesArray[i]);
+		for(int i = 0; i < slots.length; i++) 
+			entities.set(i, slots[i]);
+	}
+	
+	/**
+	 * Sorts the specified array list of entities according to the order induced in {@link ISort} callback, 
+	 * using the given <code>strategy</code>. See {@link #sort(ISort)} and {@link SortStrategy}.
+	 * 
+	 * @param func - Sorting callback.
+	 * @param strategy - Sort strategy.
+	 */
+	@JECSApi(since = "0.2.0", funcDesc = "sort entities by value")
+	public void sort(ISort<EntityT> func, SortStrategy strategy) {
+		if(strategy == SortStrategy.ADAPTIVE) {
+			ISort<EntityT> funcImpl = Sort.create(func);
+			if(insertionSort((a, b) -> funcImpl.invoke(setEntityT(entities.id(a)), setEntityT(entities.id(b)))))
+				return;
+		}
+		sort(func);
+	}
+	
+	/**Moves per entity allowed to adaptive sort before it gives up for full sort.*/
+	static final int INSERTION_MOVES = 4;
+	
+	/**
+	 * Sort the entities container in place by insertion sort, comparing the slots of entities, unless it 
+	 * needs more than {@link #INSERTION_MOVES} moves per entity. 
+	 * 
+	 * @return True if entities are sorted, false if sort gave up and entities are partially sorted.
+	 */
+	@JECSApi(since = "0.2.0")
+	final boolean insertionSort(IntBinaryOperator compare) {
+		long moves = (long) entities.size() * INSERTION_MOVES;
+		for(int i = 1; i < entities.size(); i++) {
+			int slot = entities.slotAt(i);
+			int j = i - 1;
+			for(; j >= 0 && compare.applyAsInt(entities.slotAt(j), slot) > 0; j--)
+				entities.set(j + 1, entities.slotAt(j));
+			entities.set(j + 1, slot);
+			if((moves -= i - 1 - j) < 0)
+				return false;
+		}
+		return true;
 	}
 	
 	/**
@@ -2466,17 +4975,19 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	@SuppressWarnings("unchecked")
 	public void parallelSort(ISort<EntityT> func) {
 		ISort<EntityT> funcImpl = Sort.create(func);
-		var entitiesArray = entities.toArray();
+		var entitiesArray = entityList.toArray();
 		Arrays.parallelSort(entitiesArray, new Comparator<Object>() {
 			public int compare(Object a, Object b) {
 				return funcImpl.invoke((EntityT)a, (EntityT)b);
 			}
 		});
 		
-		// Update the sorted entities list.
-		entities = new ArrayList<>();
+		// Update the sorted entities order.
+		int[] slots = new int[entitiesArray.length];
 		for(int i = 0; i < entitiesArray.length; i++) 
-			entities.add((EntityT) entitiesArray[i]);
+			slots[i] = slotOf((EntityT) entitiesArray[i]);
+		for(int i = 0; i < slots.length; i++) 
+			entities.set(i, slots[i]);
 	}
 	
 	/**
@@ -2484,7 +4995,9 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	 * <p>
 	 * Creates the group by checking all typed compoents on all entities, and
 	 * if some entity has given components its put to group pool, otherwise that entity will be
-	 * skipped.
+	 * skipped. This is done only the first time the group with these components is requested, after
+	 * that the group is kept up to date by <code>emplace</code>, <code>erase</code> and <code>destroy</code>
+	 * and this method just returns it.
 	 * <p>
 	 * A non-owning group returns all entities and only the entities that have at
 	 * least the given components.
@@ -2513,23 +5026,217 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	@SafeVarargs
 	@JECSApi(since = "0.1.8", funcDesc = "group entity by components")
 	public final <C extends Component> Group<EntityT, Component> group(Class<? extends C>... components) {
-		group.pool.clear();
-		Iterator<EntityT> itr = entities.iterator();
-		while(itr.hasNext()) {
-			var entity = itr.next();
-			if(has(entity, components))
-				group.pool.add(entity);
+		return group(plan(components));
+	}
+	
+	/**
+	 * Query.
+	 * <p>
+	 * Creates the query of entities by required, excluded and optional components. Excluded components 
+	 * are checked by component masks when the group of the query is filled and updated, so unlike calling 
+	 * <code>has</code> inside of the loop, entities with excluded components are never visited.
+	 * <p>
+	 * Example:
+	 * <code><pre>
+	 * var query = system.query().with(A.class, B.class).without(C.class).optional(D.class);
+	 * for(var entity : query) {
+	 * 	var d = query.get(entity, D.class); // null if entity doesn't have D.
+	 * }
+	 * </code></pre>
+	 */
+	@JECSApi(since = "0.2.0", funcDesc = "query entities by components")
+	public final Query<EntityT, Component> query() {
+		return new Query<>(this);
+	}
+	
+	/**
+	 * Return the registered group of entities that has all components of <code>types</code> and none of
+	 * <code>excludes</code>, if it not exist its will be created and filled.
+	 */
+	@JECSApi(since = "0.2.0")
+	final Group<EntityT, Component> group(int[] types, int[] excludes) {
+		return group(plan(types, excludes));
+	}
+	
+	/**
+	 * Return the registered group of the <code>plan</code> signature, if it not exist its will be created and filled.
+	 */
+	@JECSApi(since = "0.2.0")
+	final synchronized Group<EntityT, Component> group(Plan<EntityT, Component> plan) {
+		if(plan.group != null)
+			return plan.group;
+		
+		Group<EntityT, Component> group = new Group<>(this, plan.types, plan.excludes);
+		groups.add(group);
+		plan.group = group;
+		
+		// Fill the group once, then its kept up to date by emplace, erase and destroy.
+		each(plan, group.slots::add);
+		return group;
+	}
+	
+	/**
+	 * Return the compiled plan of iteration over entities that has all <code>types</code> and none of 
+	 * <code>excludes</code>, plan is compiled once per signature.
+	 */
+	@JECSApi(since = "0.2.0")
+	final synchronized Plan<EntityT, Component> plan(int[] types, int[] excludes) {
+		Plan<EntityT, Component> plan = planKeys.get(planProbe.set(types, types.length, excludes));
+		if(plan != null)
+			return plan;
+		
+		// Order of identifiers is new, but the signature may be already compiled.
+		types = types.clone();
+		excludes = excludes.clone();
+		plan = new Plan<>(types, excludes);
+		Plan<EntityT, Component> cached = plans.putIfAbsent(plan, plan);
+		if(cached != null)
+			plan = cached;
+		planKeys.put(new PlanKey().set(types, types.length, excludes), plan);
+		return plan;
+	}
+	
+	/**
+	 * Return the compiled plan of iteration over entities that has all <code>components</code>, identifiers of 
+	 * types are written to the reused buffer, so known signatures are found without allocation.
+	 */
+	@JECSApi(since = "0.2.0")
+	final synchronized Plan<EntityT, Component> plan(Class<?>... components) {
+		if(planIds.length < components.length)
+			planIds = new int[components.length];
+		for(int i = 0; i < components.length; i++)
+			planIds[i] = ComponentType.id(components[i]);
+		
+		Plan<EntityT, Component> plan = planKeys.get(planProbe.set(planIds, components.length, PlanKey.NONE));
+		return plan != null ? plan : plan(Arrays.copyOf(planIds, components.length), PlanKey.NONE);
+	}
+	
+	/**
+	 * Visit the slots of all entities that match the <code>plan</code>, without any registered group.
+	 * <p>
+	 * Archetype tables are matched whole. Otherwise the required type that currently has the fewest entities 
+	 * drives the iteration and other types are probed by the masks, so the cost depends on the rarest 
+	 * component and not on the number of entities. Slots are visited from the last one, so the visited 
+	 * entity can be destroyed by <code>action</code>.
+	 */
+	@JECSApi(since = "0.2.0")
+	final void each(Plan<EntityT, Component> plan, IntConsumer action) {
+		int[] types = plan.types;
+		if(types.length == 0)
+			return;
+		if(context.ctxStorageMode == StorageMode.ARCHETYPES && !anyOffHeap(types) && !anyOffHeap(plan.excludes)) {
+			storage.each(types, plan.excludes, action);
+			return;
+		}
+		
+		int smallest = types[0];
+		int size = sizeOf(smallest);
+		for(int i = 1; i < types.length && size > 0; i++) {
+			int typeSize = sizeOf(types[i]);
+			if(typeSize < size) {
+				smallest = types[i];
+				size = typeSize;
+			}
+		}
+		if(size == 0)
+			return;
+		
+		OffHeapPool<Component> components = offHeapOf(smallest);
+		if(components == null) {
+			storage.each(smallest, (component, slot) -> {
+				if(masks.containsAll(slot, plan.mask) && !masks.containsAny(slot, plan.exclude))
+					action.accept(slot);
+			});
+			return;
+		}
+		for(int i = components.size() - 1; i >= 0; i = Math.min(i, components.size()) - 1) {
+			int slot = components.slot(i);
+			if(masks.containsAll(slot, plan.mask) && !masks.containsAny(slot, plan.exclude))
+				action.accept(slot);
 		}
+	}
 	
+	/**
+	 * Owning group.
+	 * <p>
+	 * Takes the ownership of the pools of given components and keeps entities that has all of them packed
+	 * at the front of each owned pool in the same order. Entity in position <code>i</code> of the group has
+	 * its components in position <code>i</code> of each pool, so iteration reads the pools as parallel arrays
+	 * by index instead of looking up each component. Like {@link #group(Class...)}, the group is created and
+	 * filled only the first time it's requested and then kept up to date by <code>emplace</code>,
+	 * <code>erase</code> and <code>destroy</code>, that just swap the entity in or out of the packed range.
+	 * <p>
+	 * Each pool can be owned only by one owning group, so the hottest set of components should be grouped
+	 * this way and the rest with non-owning groups. Owning groups work only with {@link StorageMode#POOLS},
+	 * archetype tables already keep the components of matched entities packed.
+	 * <p>
+	 * Example:
+	 * <code><pre>
+	 * var group = system.owningGroup(A.class, B.class);
+	 * var as = group.pool(A.class);
+	 * var bs = group.pool(B.class);
+	 * for(int i = 0; i < group.size(); i++) {
+	 * 	... use as.component(i) and bs.component(i) ...
+	 * }
+	 * </code></pre>
+	 * 
+	 * @param components Types of components owned by the group.
+	 * @returns The group of entities that has given components.
+	 * 
+	 * @throws JECSException if storage mode is not {@link StorageMode#POOLS}, one of components is 
+	 * {@link OffHeap} or already owned by another owning group.
+	 */
+	@SafeVarargs
+	@JECSApi(since = "0.2.0", funcDesc = "group entity by owned components")
+	public final synchronized <C extends Component> OwningGroup<EntityT, Component> owningGroup(Class<? extends C>... components) {
+		if(context.ctxStorageMode != StorageMode.POOLS)
+			throw new JECSException("Owning groups are supported only by " + StorageMode.POOLS + " storage mode!");
+		if(components.length == 0)
+			throw new JECSException("Owning group should own at least one component!");
+		
+		int[] types = ComponentType.ids(components);
+		long[] mask = ComponentMasks.mask(types);
+		for(int i = 0; i < owningGroups.size(); i++) {
+			OwningGroup<EntityT, Component> group = owningGroups.get(i);
+			if(Arrays.equals(group.mask, mask))
+				return group;
+			for(int j = 0; j < types.length; j++)
+				if(ComponentMasks.contains(group.mask, types[j]))
+					throw new JECSException("Component with type <" + components[j].getTypeName() + "> already owned by another group!");
+		}
+		
+		@SuppressWarnings("unchecked")
+		ComponentPool<Component>[] pools = (ComponentPool<Component>[]) new ComponentPool<?>[types.length];
+		for(int i = 0; i < types.length; i++) {
+			if(components[i].isAnnotationPresent(OffHeap.class))
+				throw new JECSException("Off-heap component with type <" + components[i].getTypeName() + "> cannot be owned!");
+			pools[i] = ((PoolStorage<Component>) storage).assure(types[i]);
+		}
+		
+		OwningGroup<EntityT, Component> group = new OwningGroup<>(this, types, pools);
+		owningGroups.add(group);
+		
+		// Fill the group once, slots are collected first because entering reorders the walked pool.
+		ComponentPool<Component> smallest = pools[0];
+		for(int i = 1; i < pools.length; i++)
+			if(pools[i].size() < smallest.size())
+				smallest = pools[i];
+		int[] slots = new int[smallest.size()];
+		int count = 0;
+		for(int i = 0; i < smallest.size(); i++)
+			if(masks.containsAll(smallest.slot(i), mask))
+				slots[count++] = smallest.slot(i);
+		for(int i = 0; i < count; i++)
+			group.enter(slots[i]);
 		return group;
 	}
 	
 	/**
 	 * View.
 	 * <p>
-	 * Creates the view by checking one type component on all entities, and
-	 * if some entity has given component its put to view pool, otherwise that entity will be
-	 * skipped.
+	 * Creates the view by walking the pool of one type component, so only the entities that has 
+	 * given component are visited. Like the group, view is filled only the first time it's requested
+	 * for this component and then kept up to date.
 	 * <p>
 	 * A view returns all entities and only the entities that have at least the given components.
 	 * <p>
@@ -2549,15 +5256,17 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	 * @returns The only that entities that has component with given type.
 	 */
 	@JECSApi(since = "0.1.8", funcDesc = "view entities by one type component")
-	public final <C extends Component> View<EntityT> view(Class<C> component) {
-		view.pool.clear();
-		Iterator<EntityT> itr = entities.iterator();
-		while(itr.hasNext()) {
-			var entity = itr.next();
-			if(has(entity, component))
-				view.pool.add(entity);
-		}
+	public final synchronized <C extends Component> View<EntityT> view(Class<C> component) {
+		int type = ComponentType.id(component);
+		for(int i = 0; i < views.size(); i++)
+			if(views.get(i).type == type)
+				return views.get(i);
 		
+		// Fill the view once, then its kept up to date by emplace, erase and destroy.
+		View<EntityT> view = new View<>(this, type);
+		views.add(view);
+		changesOf(type).observe(tick);
+		eachSlot(type, view.slots::add);
 		return view;
 	}
 
@@ -2572,12 +5281,10 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	 */
 	@JECSApi(since = "0.1.8", funcDesc = "find entity by component")
 	public <C extends Component> EntityT find(Class<? extends C> component) {
-		Iterator<EntityT> itr = entities.iterator();
-		while(itr.hasNext()) {
-			var entity = itr.next();
-			if(has(entity, component))
-				return entity;
-		}
+		int type = ComponentType.id(component);
+		for(int i = 0; i < entities.size(); i++)
+			if(masks.contains(entities.slotAt(i), type))
+				return setEntityT(entities.get(i));
 		return setEntityT(-1);
 	}
 	
@@ -2592,15 +5299,72 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	 */
 	@JECSApi(since = "0.1.8", funcDesc = "find last entity by component")
 	public <C extends Component> EntityT findLast(Class<? extends C> component) {
-		Iterator<EntityT> itr = entities.iterator();
-		var entity = setEntityT(-1);
-		while(itr.hasNext()) {
-			if(has(itr.next(), component)) {
-				entity = itr.next();
-				continue;
-			}
-		}
-		return entity;
+		int type = ComponentType.id(component);
+		for(int i = entities.size() - 1; i >= 0; i--)
+			if(masks.contains(entities.slotAt(i), type))
+				return setEntityT(entities.get(i));
+		return setEntityT(-1);
+	}
+	
+	/**
+	 * Returns the number of entities that has a component of exactly <code>componentT</code> type. Its read from 
+	 * the storage of this type, so its doesn't depend on the number of entities.
+	 * 
+	 * @param <C> - Type of component.
+	 * @param componentT - Type of component.
+	 */
+	@JECSApi(since = "0.2.0")
+	public <C extends Component> int count(Class<C> componentT) {
+		return sizeOf(ComponentType.id(componentT));
+	}
+	
+	/**
+	 * Return the first entity in the storage of <code>componentT</code> components, or -1 if no one entity has 
+	 * this component. Unlike {@link #find(Class)} its doesn't scan the entities, but order of the storage 
+	 * is not the order of entities container and changes when components are erased or sorted.
+	 * 
+	 * @param <C> - Type of component.
+	 * @param componentT - Type of component.
+	 */
+	@JECSApi(since = "0.2.0")
+	public <C extends Component> EntityT first(Class<C> componentT) {
+		int slot = slotAt(ComponentType.id(componentT), 0);
+		return setEntityT(slot != -1 ? entities.id(slot) : -1);
+	}
+	
+	/**
+	 * Return the last entity in the storage of <code>componentT</code> components, or -1 if no one entity has 
+	 * this component. See {@link #first(Class)}.
+	 * 
+	 * @param <C> - Type of component.
+	 * @param componentT - Type of component.
+	 */
+	@JECSApi(since = "0.2.0")
+	public <C extends Component> EntityT last(Class<C> componentT) {
+		int type = ComponentType.id(componentT);
+		int slot = slotAt(type, sizeOf(type) - 1);
+		return setEntityT(slot != -1 ? entities.id(slot) : -1);
+	}
+	
+	/**
+	 * Return read-only list of entities that has a component of exactly <code>componentT</code> type. List is
+	 * a view over the storage of this type, nothing is copied and it reflects later changes of the system, so
+	 * it should not be iterated while components of this type are emplaced or erased.
+	 * <p>
+	 * Example:
+	 * <pre>
+	 * if(system.count(Connection.class) >= limit)
+	 * 	reject(system.first(Connection.class));
+	 * for(var entity : system.entitiesOf(Connection.class))
+	 * 	...
+	 * </pre>
+	 * 
+	 * @param <C> - Type of component.
+	 * @param componentT - Type of component.
+	 */
+	@JECSApi(since = "0.2.0")
+	public <C extends Component> List<EntityT> entitiesOf(Class<C> componentT) {
+		return new TypeEntityList(ComponentType.id(componentT));
 	}
 
 	/**
@@ -2628,23 +5392,7 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	public <C extends Component> boolean has(EntityT entity, Class<C> componentT) throws JECSException {
 		validationCheck(entity, "check on has component from");
 		
-		ComponentSequence<Component> components = container.get(entity);
-		String typeName = componentT.getTypeName();
-		String objectTypeName = "";
-		
-		int searchedKey = components.isEmpty() ? 0 : components.size();
-		for(int i = 0; i < searchedKey; i++) {
-			if(components.get(i) == null) {
-				if(i == searchedKey)
-					return false;
-				continue;
-			} else
-				objectTypeName = components.get(i).getClass().getTypeName();
-				
-			if(typeName.contentEquals(objectTypeName))
-				return true;
-		}
-		return false;
+		return masks.contains(slotOf(entity), ComponentType.id(componentT));
 	}
 	
 	/**
@@ -2669,16 +5417,7 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	public <C extends Component> boolean has(EntityT entity, C component) throws JECSException {
 		validationCheck(entity, "check on has component from");
 		
-		ComponentSequence<Component> components = container.get(entity);
-		int searchedKey = components.isEmpty() ? 0 : components.size();
-		for(int i = 0; i < searchedKey; i++) {
-			if(components.get(i) == null)
-				continue;
-				
-			if(component.equals(components.get(i)))
-				return true;
-		}
-		return false;
+		return component.equals(storage.get(slotOf(entity), ComponentType.id(component.getClass())));
 	}
 	
 	/**
@@ -2706,15 +5445,8 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	@JECSApi(since = "0.1.0")
 	public final <C extends Component> boolean has(EntityT entity, Class<? extends C>... componentTs) 
 			throws JECSException {
-		int similarities = 0;
-		for(int i = 0; i < componentTs.length; i++)
-			if(has(entity, (Class<? extends C>) componentTs[i]))
-				similarities++;
-		
-		if(similarities == componentTs.length)
-			return true;
-		
-		return false;
+		validationCheck(entity, "check on has component from");
+		return masks.containsAll(slotOf(entity), ComponentMasks.mask(ComponentType.ids(componentTs)));
 	}
 	
 	/**
@@ -2739,10 +5471,8 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	@JECSApi(since = "0.1.3")
 	public final <C extends Component> boolean any(EntityT entity, Class<? extends C>... componentTs) 
 			throws JECSException {
-		for(int i = 0; i < componentTs.length; i++)
-			if(has(entity, (Class<? extends C>) componentTs[i])) 
-				return true;
-		return false;
+		validationCheck(entity, "check on has component from");
+		return masks.containsAny(slotOf(entity), ComponentMasks.mask(ComponentType.ids(componentTs)));
 	}
 	
 	/**
@@ -2767,11 +5497,8 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	@JECSApi(since = "0.1.9")
 	public final <C extends Component> boolean all(EntityT entity, Class<? extends C>... componentTs) 
 			throws JECSException {
-		int hasCount = 0;
-		for(int i = 0; i < componentTs.length; i++)
-			if(has(entity, (Class<? extends C>) componentTs[i])) 
-				hasCount++;
-		return componentTs.length == hasCount;
+		validationCheck(entity, "check on has component from");
+		return masks.containsAll(slotOf(entity), ComponentMasks.mask(ComponentType.ids(componentTs)));
 	}
 	
 	/**
@@ -2792,14 +5519,11 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	 * @return True if at least one type-class of component equals classType.
 	 * @throws JECSException 
 	 */
-	@SuppressWarnings("unchecked")
 	@JECSApi(since = "0.1.8")
 	public final <C extends Component> boolean anyArray(EntityT entity, Class<?>[] componentTs) 
 			throws JECSException {
-		for(int i = 0; i < componentTs.length; i++)
-			if(has(entity, (Class<? extends C>) componentTs[i])) 
-				return true;
-		return false;
+		validationCheck(entity, "check on has component from");
+		return masks.containsAny(slotOf(entity), ComponentMasks.mask(ComponentType.ids(componentTs)));
 	}
 	
 	/**
@@ -2810,7 +5534,7 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	 */
 	@JECSApi(since = "0.1.2")
 	public final boolean contains(EntityT entity) {
-		if(container.containsKey(entity)) 
+		if(slotOf(entity) != -1) 
 			return true;
 		return false;
 	}
@@ -2839,20 +5563,12 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	@SuppressWarnings("unchecked")
 	@JECSApi(since = "0.1.8")
 	private <C extends Component> C getInternal(EntityT entity, Class<?> componentT) {
-		ComponentSequence<Component> components = container.get((EntityT)entity);
-		for(int i = 0; i < components.size(); i++) {
-			Component component = components.get(i);
-			if(component == null) {
-				if(i != components.size()) 
-					continue;
-				else break;
-			} else {
-				if(component.getClass().getName().equals(componentT.getName()))
-					// This is absolutly safty cast bc we cast Object to T (i.e Object is parent for T)
-					return ((C) container.get(entity).get(i));
-			}
-		}
-		return null;
+		int type = ComponentType.id(componentT);
+		OffHeapPool<Component> components = offHeapOf(type);
+		if(components != null)
+			return (C) components.get(slotOf(entity));
+		// This is absolutly safty cast bc we cast Object to T (i.e Object is parent for T)
+		return (C) storage.get(slotOf(entity), type);
 	}
 	
 	/**
@@ -2867,7 +5583,7 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	@SuppressWarnings("unchecked")
 	@JECSApi(since = "0.1.8")
 	public <C extends Component> C[] get(EntityT entity) {
-		return (C[]) container.get(entity).toArray();
+		return (C[]) sequence(slotOrThrow(entity)).toArray();
 	}
 
 	/**
@@ -2922,6 +5638,10 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	 * If this method was called by constructor of some component on intitializaion or emplacing 
 	 * this also returns current emplaced entity or entity that will be emplaced, with this point of
 	 * view is should be safe.
+	 * <p>
+	 * Entity is found by identity of the instance in constant time. Instance shared by several entities
+	 * is found for the entity it was emplaced to last time among the ones that still hold it, off-heap 
+	 * components are copies and never found.
 	 * 
 	 * @param <C> - component type.
 	 * @param component - Its of instance of component.
@@ -2930,46 +5650,35 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	@JECSApi(since = "0.1.8")
 	public <C extends Component> EntityT get(C component) {
 		// Check if C component is instance and not a class type. If class type we change the overload.
-		if(component.getClass().getTypeName().contains("java.lang.Class"))
+		if(component instanceof Class)
 			return get((Class<C>) component);
 		
-		var pairs = pool.get(component.getClass());
-		if(pairs == null) 
-			return currentEmplacedEntity;
+		int slot = owners.get(component);
+		if(slot != -1)
+			return setEntityT(entities.id(slot));
 		
-		for(var entity : entities) {
-			for(Pair<EntityT, Component> pair : pairs) {
-				if(pair.first == entity)
-					return entity;
-			}
-		}
+		if(storage.size(ComponentType.id(component.getClass())) == 0) 
+			return currentEmplacedEntity == -1 ? null : setEntityT(currentEmplacedEntity);
 	
-		if(contains(currentEmplacedEntity))
-			return currentEmplacedEntity;
+		if(entities.contains(currentEmplacedEntity))
+			return setEntityT(currentEmplacedEntity);
 		
 		return null;
 	}
 	
 	public <C extends Component> EntityT get(Class<C> component) {
-		var pairs = pool.get(component);
-		if(pairs == null) 
-			return currentEmplacedEntity;
-		
-		for(var entity : entities) {
-			for(Pair<EntityT, Component> pair : pairs) {
-				if(pair.first == entity)
-					return entity;
-			}
-		}
-	
-		if(contains(currentEmplacedEntity))
-			return currentEmplacedEntity;
+		int type = ComponentType.id(component);
+		if(sizeOf(type) == 0) 
+			return currentEmplacedEntity == -1 ? null : setEntityT(currentEmplacedEntity);
 		
-		return null;
+		// First entity in container order is the one with the lowest position among slots of the storage.
+		int[] first = { Integer.MAX_VALUE };
+		eachSlot(type, slot -> first[0] = Math.min(first[0], entities.indexOfSlot(slot)));
+		return setEntityT(entities.get(first[0]));
 	}
 	
 	/**
-	 * Gets all entities that attached to this  component.
+	 * Gets all entities that attached to this  component, in the order of entities container.
 	 * <p>
 	 * If this method was called by constructor of some component on intitializaion or emplacing 
 	 * this also returns current emplaced entity or entity that will be emplaced, with this point of
@@ -2980,18 +5689,20 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	 */
 	@JECSApi(since = "0.1.9")
 	public <C extends Component> List<EntityT> getAll(Class<C> component) {
-		var pairs = pool.get(component);
-		if(pairs == null) 
+		int type = ComponentType.id(component);
+		int size = sizeOf(type);
+		if(size == 0) 
 			return null;
 		
-		List<EntityT> ne = new ArrayList<EntityT>();
-		for(var entity : entities) {
-			for(Pair<EntityT, Component> pair : pairs) {
-				if(pair.first == entity)
-					ne.add(entity);
-			}
-		}
-	
+		// Positions are collected from the storage table by table, then sorted to the order of entities container.
+		int[] positions = new int[size];
+		int[] count = { 0 };
+		eachSlot(type, slot -> positions[count[0]++] = entities.indexOfSlot(slot));
+		Arrays.sort(positions);
+		
+		List<EntityT> ne = new ArrayList<EntityT>(size);
+		for(int i = 0; i < size; i++)
+			ne.add(setEntityT(entities.get(positions[i])));
 		return ne;
 	}
 
@@ -3006,7 +5717,7 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	private Object getObject(EntityT entity, int index) {
 		validationCheck(entity, "check on has component from");
 
-		ComponentSequence<Component> components = container.get(entity);
+		ComponentSequence<Component> components = sequence(slotOrThrow(entity));
 		if(components.get(index) == null)
 			return null;
 		else
@@ -3031,19 +5742,7 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 			throws JECSException {
 		validationCheck(entity, "check on has component from");
 
-		ComponentSequence<Component> components = container.get(entity);
-		for(int i = 0; i < components.size(); i++) {
-			if(components.get(i) == null) {
-				if(i != components.size()) 
-					continue;
-				else break;
-			} else {
-				if(components.get(i).getClass().getName().equals(componentT.getName()))
-					// This is absolutly safty cast bc we cast Object to T (i.e Object is parent for T)
-					return ((C) container.get(entity).get(i));
-			}
-		}
-		return null;
+		return getInternal(entity, componentT);
 	}
 	
 	/**
@@ -3192,11 +5891,13 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 			throws JECSException {
 		validationCheck(entity, "get pack of components from");
 		
-		for(int i = 0; i < packs.get(index).size(); i++)
-			if(container.get(entity).contains(packs.get(index).get(i)))
-				continue;
-			else return null;
-		return (Component[]) packs.get(index).toArray();
+		ComponentSequence<Component> pack = packs.get(index);
+		for(int i = 0; i < pack.size(); i++) {
+			Component component = pack.get(i);
+			if(storage.get(slotOf(entity), ComponentType.id(component.getClass())) != component)
+				return null;
+		}
+		return (Component[]) pack.toArray();
 	}
 	
 	/**
@@ -3246,13 +5947,9 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	public final synchronized <Pack extends Component> void invokeEachPack(Pack[] pack, String funcName, Object... funcArgs) {	
 		for(int i = 0; i < pack.length; i++) {
 			try {
-				Class<?>[] funcArgsTypes = new Class<?>[funcArgs.length]; 
-				for(int t = 0; t < funcArgs.length; t++) 
-					funcArgsTypes[t] = sortR(funcArgs[t].getClass().getTypeName(), funcArgs[t].getClass());
-					
 				// Invokes the function
-				Method func = pack[i].getClass().getDeclaredMethod(funcName, funcArgsTypes);
-				func.invoke(pack[i], funcArgs);
+				MethodHandle func = ComponentMethods.get(pack[i].getClass(), funcName, funcArgs, true);
+				ComponentMethods.invoke(func, pack[i], funcArgs);
 			} catch (NoSuchMethodException | SecurityException | IllegalAccessException |
 					IllegalArgumentException | InvocationTargetException e) 
 						{ e.printStackTrace();}
@@ -3325,19 +6022,27 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	
 	/**
 	 * Replace the component in-place. This method will change the component data in-place with out additional call
-	 * of {@link #get(Number, Class)}.
+	 * of {@link #get(Number, Class)}. Component is marked as changed in the current tick, see {@link #tick()}.
 	 * 
 	 * @param entity - The entity identifier.
 	 * @param component - The component class type.
 	 * @param func - Callback that will apply on component.
 	 * @param <Component> - Generic type of component.
 	 */
-	@SuppressWarnings("hiding")
+	@SuppressWarnings({"hiding", "unchecked"})
 	@JECSApi(since = "0.1.9")
 	public final <Component> void patch(EntityT entity, Class<Component> component, IPatch<Component> func) {
 		IPatch<Component> funcImpl = Patch.create(func);
-		Component c = get(entity, component);
+		Component c = component.cast(get(entity, component));
 		funcImpl.invoke(c);
+		
+		// Off-heap component is a copy, so its written back.
+		int type = ComponentType.id(component);
+		OffHeapPool<Component> offHeapComponents = (OffHeapPool<Component>) offHeapOf(type);
+		if(offHeapComponents != null)
+			offHeapComponents.write(slotOf(entity), c);
+		changesOf(type).change(slotOf(entity), tick);
+		publish(UPDATE, type, slotOf(entity), c);
 	}
 	
 	/**
@@ -3349,7 +6054,7 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	 */
 	@JECSApi(since = "0.1.9")
 	public final <C extends Component> void insert(Class<C> component) {
-		for(var entity : entities) {
+		for(var entity : entityList) {
 			if(has(entity, component))
 				replace(entity, component, NULL_ARGS);
 			else
@@ -3383,7 +6088,7 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	 */
 	@JECSApi(since = "0.1.9")
 	public final <C extends Component> void insert(Class<C> component, Object... args) {
-		for(var entity : entities) {
+		for(var entity : entityList) {
 			if(has(entity, component))
 				replace(entity, component, args);
 			else
@@ -3407,7 +6112,7 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	@JECSApi(since = "0.1.9")
 	public final <C extends Component> void insertRange(Class<C> component, int first, int last, Object... args) {
 		for(int i = 0; i < entities.size(); i++) {
-			var entity = entities.get(i);
+			var entity = entityList.get(i);
 			if(i >= first && i <= last) {
 				if(has(entity, component))
 					replace(entity, component, args);
@@ -3427,7 +6132,7 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	@JECSApi(since = "0.1.9")
 	@SuppressWarnings("unchecked")
 	public final <C extends Component> void insert(C component) {
-		for(var entity : entities) {
+		for(var entity : entityList) {
 			if(has(entity, (Class<C>) component.getClass()))
 				replace(entity, component);
 			else
@@ -3445,7 +6150,7 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	@JECSApi(since = "0.1.9")
 	public final <C extends Component> void insert(C component, int first, int last) {
 		for(int i = 0; i < entities.size(); i++) {
-			var entity = entities.get(i);
+			var entity = entityList.get(i);
 			if(i >= first && i <= last) {
 				if(has(entity, component))
 					replace(entity, component);
@@ -3488,7 +6193,7 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	 */
 	@JECSApi(since = "0.1.5")
 	public final Iterator<EntityT> iterator() {
-		return entities.iterator();
+		return entityList.iterator();
 	}
 	
 	/**
@@ -3497,7 +6202,7 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	 */
 	@JECSApi(since = "0.1.5")
 	public final ListIterator<EntityT> listIterator() {
-		return entities.listIterator();
+		return entityList.listIterator();
 	}
 	
 	/**
@@ -3506,7 +6211,7 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	 */
 	@JECSApi(since = "0.1.5")
 	public final ReversedIterator<EntityT> reversedIterator() {
-		ReversedIterator<EntityT> reverseItr = new ReversedIterator<EntityT>(entities);
+		ReversedIterator<EntityT> reverseItr = new ReversedIterator<EntityT>(entityList);
 		return reverseItr;
 	}
 	
@@ -3516,7 +6221,7 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	 */
 	@JECSApi(since = "0.1.5")
 	public final ReversedIteratorList<EntityT> reversedIteratorList() {
-		ReversedIteratorList<EntityT> reverseListItr = new ReversedIteratorList<EntityT>(entities);
+		ReversedIteratorList<EntityT> reverseListItr = new ReversedIteratorList<EntityT>(entityList);
 		return reverseListItr;
 	}
 	
@@ -3527,7 +6232,7 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	 */
 	@JECSApi(since = "0.1.9")
 	public <C extends Component> void clear(Class<C> componentT) {
-		for(var entity : entities)
+		for(var entity : entityList)
 			if(has(entity, componentT)) 
 				erase(entity, componentT);
 	}
@@ -3537,7 +6242,25 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	 */
 	@JECSApi(since = "0.1.1")
 	public void clear() {
-		container.clear();
+		for(var components : container)
+			if(components != null)
+				components.clear();
+		entities.clear();
+		storage.clear();
+		owners.clear();
+		masks.clear();
+		for(var group : groups)
+			group.slots.clear();
+		for(var group : owningGroups)
+			group.length = 0;
+		for(var ticks : changes)
+			if(ticks != null)
+				ticks.clear();
+		for(var view : views)
+			view.slots.clear();
+		for(var components : offHeap)
+			if(components != null)
+				components.clear();
 	}
 	
 	/**
@@ -3545,7 +6268,7 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	 */
 	@JECSApi(since = "0.1.1")
 	public boolean empty() {
-		return container.isEmpty();
+		return entities.isEmpty();
 	}
 	
 	/**
@@ -3557,10 +6280,11 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	public void clear(EntityT entity) {
 		removeAll(entity);
 		
-		if(!container.get(entity).isEmpty())
+		ComponentSequence<Component> components = sequence(slotOrThrow(entity));
+		if(!components.isEmpty())
 			clear(entity);
 		
-		container.get(entity).clear();
+		components.clear();
 	}
 	
 	/**
@@ -3571,7 +6295,7 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	 */
 	@JECSApi(since = "0.1.1")
 	public int size(EntityT entity) {
-		return container.get(entity).size();
+		return sequence(slotOrThrow(entity)).size();
 	}
 	
 	/**
@@ -3581,7 +6305,7 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	 */
 	@JECSApi(since = "0.1.1")
 	public int size() {
-		return container.size();
+		return entities.size();
 	}
 	
     /**
@@ -3645,7 +6369,9 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	}
 	
 	/**
-	 * Check entity identifier on valid is or not.
+	 * Check entity identifier on valid is or not. Identifier is valid only if it refers to existing
+	 * entity, identifiers of destroyed entities are not valid even if their index was reused, because
+	 * the version of identifier is not match.
 	 * 
 	 * {@link NullEntity}'s always return false.
 	 * 
@@ -3653,7 +6379,7 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	 * 
 	 * @throws JECSException If entity is not valid.
 	 */
-	@JECSApi(since = "0.1.9")
+	@JECSApi(since = "0.1.9, last = 0.2.0")
 	public boolean isValid(EntityT entity) { 
 		if(entity == null)
 			return false;
@@ -3661,7 +6387,18 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 		if(NullEntity.class.isAssignableFrom(entity.getClass()))
 			return false;
 	
-		return true;
+		return slotOf(entity) != -1;
+	}
+	
+	/**
+	 * Returns the version of entity identifier. Version of index increases each time the entity 
+	 * with this index is destroyed.
+	 * 
+	 * @param entity - Entity identifier.
+	 */
+	@JECSApi(since = "0.2.0")
+	public int version(EntityT entity) {
+		return entities.version(idOf(entity));
 	}
 	
 	/**
@@ -3690,8 +6427,8 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	private boolean validationCheck(EntityT entity, String msg) 
 			throws JECSException {
 		if(!Context.ctxRelease) { // Disable validationCheck for fast / release modes.
-			final EntityT unvalid = setEntityT(-1); //uses Integer instead 'int' because generic type cast.
-			boolean flag = (entity == null) || (entity == (EntityT) unvalid); 
+			// Compare primitive value, so no one identifier is boxed to check it.
+			boolean flag = (entity == null) || (!(entity instanceof NullEntity) && entity.longValue() == -1); 
 			if(flag)
 				throw new JECSException("Cannot " + msg + " unvalid entity.");
 		}
@@ -3702,6 +6439,28 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 		return true;
 	}
 	
+	/**
+	 * Return the sequence of components in the <code>slot</code> or shared empty sequence if it's not
+	 * allocated yet, without allocating it.
+	 */
+	private List<Component> sequenceOrEmpty(int slot) {
+		ComponentSequence<Component> components = container[slot];
+		return components != null ? components : List.of();
+	}
+	
+	/**
+	 * String representation of component sequences of all entities, in the order of entities.
+	 */
+	private String containerToString() {
+		StringBuilder builder = new StringBuilder("{");
+		for(int i = 0; i < entities.size(); i++) {
+			if(i != 0)
+				builder.append(", ");
+			builder.append(entities.get(i)).append('=').append(sequenceOrEmpty(entities.slotAt(i)));
+		}
+		return builder.append('}').toString();
+	}
+	
 	/**
 	 * Returns a string representation of the this handle to Entity Component System. In general, the
 	 * toString method returns a string that "textually represents" this object. The result should be
@@ -3714,8 +6473,8 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 		return "JECSHandle "
 				+ "[" +
 				 	"\n  entities=" + entities + 
-				 	"\n  container=" + container +
-				 	"\n  pool=" + pool +
+				 	"\n  container=" + containerToString() +
+				 	"\n  storage=" + storage +
 				 	"\n  packs=" + packs +
 				  "]";
 	}
@@ -3730,8 +6489,9 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
-		result = prime * result + ((container == null) ? 0 : container.hashCode());
 		result = prime * result + ((entities == null) ? 0 : entities.hashCode());
+		for(int i = 0; entities != null && i < entities.size(); i++)
+			result = prime * result + sequenceOrEmpty(entities.slotAt(i)).hashCode();
 		result = prime * result + ((packs == null) ? 0 : packs.hashCode());
 		return result;
 	}
@@ -3751,18 +6511,17 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 		@SuppressWarnings("unchecked")
 		BaseJECS<EntityT, Component> other =  (BaseJECS<EntityT, Component>) obj;
 		
-		if (container == null) {
-			if (other.container != null)
-				return false;
-		} else if (!container.equals(other.container))
-			return false;
-		
 		if (entities == null) {
 			if (other.entities != null)
 				return false;
 		} else if (!entities.equals(other.entities))
 			return false;
 		
+		// Slots of the same entity can differ, so compare sequences by entities.
+		for(int i = 0; entities != null && i < entities.size(); i++)
+			if(!sequenceOrEmpty(entities.slotAt(i)).equals(other.sequenceOrEmpty(other.entities.slotAt(i))))
+				return false;
+		
 		if (packs == null) {
 			if (other.packs != null)
 				return false;
@@ -3786,10 +6545,163 @@ public abstract class BaseJECS<EntityT extends Number, Component extends Object>
 		return context;
 	}
 
-	@JECSApi(since = "0.1.*")
+	/**
+	 * Runs one tick of the {@link #scheduler()} of this system and then advances the tick, see {@link #nextTick()}.
+	 */
+	@JECSApi(since = "0.1.*, last = 0.2.0")
 	@Override
 	public void run() {
-
+		scheduler.run();
+		nextTick();
+	}
+	
+	/**
+	 * Returns the current tick of the system. Every emplace, replace, patch, {@link #getMutable(Number, Class)} or 
+	 * removal of component stores the current tick, so changes made after some tick can be found by 
+	 * {@link View#changedSince(long)}, {@link View#addedSince(long)} and {@link View#removedSince(long)}.
+	 * <p>
+	 * Example:
+	 * <pre>
+	 * long synced = system.tick() - 1;
+	 * while(running) {
+	 *     system.run();
+	 *     for(var entity : system.view(Transform.class).changedSince(synced))
+	 *         send(entity);
+	 *     synced = system.tick() - 1;
+	 * }
+	 * </pre>
+	 */
+	@JECSApi(since = "0.2.0")
+	public long tick() {
+		return tick;
+	}
+	
+	/**
+	 * Advance the tick of the system. Removals of components are remembered only for the current and the 
+	 * previous tick, older ones are forgotten here.
+	 * 
+	 * @return The new tick.
+	 */
+	@JECSApi(since = "0.2.0")
+	public long nextTick() {
+		tick++;
+		for(var ticks : changes)
+			if(ticks != null)
+				ticks.prune(tick - 1);
+		return tick;
+	}
+	
+	/**
+	 * Mark the component of <code>componentT</code> of <code>entity</code> as changed in the current tick. 
+	 * Should be called after component was changed in place, like inside of <code>each</code> callback.
+	 * 
+	 * @throws JECSException if entity doesn't have such component.
+	 */
+	@JECSApi(since = "0.2.0")
+	public void markChanged(EntityT entity, Class<?> componentT) throws JECSException {
+		int type = ComponentType.id(componentT);
+		int slot = slotOf(entity);
+		if(!masks.contains(slot, type))
+			throw new JECSException("Component with type <" + componentT.getName() + "> non-exist!");
+		changesOf(type).change(slot, tick);
+		if(listened(UPDATE, type))
+			publish(UPDATE, type, slot, componentOf(slot, type));
+	}
+	
+	/**
+	 * Gets the component like {@link #get(Number, Class)} and marks it as changed in the current tick, so it
+	 * should be used when component is going to be changed in place.
+	 * <p>
+	 * {@link OffHeap} components are copies, changes of the copy are not written back, so they should be changed
+	 * by {@link #patch(Number, Class, IPatch)} or {@link #replace(Number, Object)} instead.
+	 * 
+	 * @throws JECSException if entity doesn't have such component, or component is {@link OffHeap}.
+	 */
+	@JECSApi(since = "0.2.0")
+	public <C extends Component> C getMutable(EntityT entity, Class<C> componentT) throws JECSException {
+		int type = ComponentType.id(componentT);
+		if(offHeapOf(type) != null)
+			throw new JECSException("Off-heap component <" + componentT.getName() + "> can't be changed in place, use patch or replace!");
+		C component = get(entity, componentT);
+		changesOf(type).change(slotOf(entity), tick);
+		return component;
+	}
+	
+	/**
+	 * Returns the sink of signal that is published after component of exactly <code>componentT</code> type is
+	 * emplaced to entity. Listeners should not emplace or remove components of the same type.
+	 * <p>
+	 * Signals of components emplaced by {@link CommandBuffer#apply()} are published grouped by component type,
+	 * so listeners of one type are called in one batch.
+	 * <p>
+	 * Example:
+	 * <pre>
+	 * system.onConstruct(Transform.class).connect((entity, transform) -> index.insert(entity, transform));
+	 * system.onUpdate(Transform.class).connect((entity, transform) -> index.move(entity, transform));
+	 * system.onDestroy(Transform.class).connect((entity, transform) -> index.remove(entity));
+	 * </pre>
+	 */
+	@JECSApi(since = "0.2.0")
+	public <C extends Component> Sink<EntityT, C> onConstruct(Class<C> componentT) {
+		return sinkOf(CONSTRUCT, ComponentType.id(componentT));
+	}
+	
+	/**
+	 * Returns the sink of signal that is published after component of exactly <code>componentT</code> type is
+	 * replaced, patched or marked by {@link #markChanged(Number, Class)}. See {@link #onConstruct(Class)}.
+	 */
+	@JECSApi(since = "0.2.0")
+	public <C extends Component> Sink<EntityT, C> onUpdate(Class<C> componentT) {
+		return sinkOf(UPDATE, ComponentType.id(componentT));
+	}
+	
+	/**
+	 * Returns the sink of signal that is published before component of exactly <code>componentT</code> type is
+	 * erased or removed, or its entity is destroyed, so the entity still has it. See {@link #onConstruct(Class)}.
+	 */
+	@JECSApi(since = "0.2.0")
+	public <C extends Component> Sink<EntityT, C> onDestroy(Class<C> componentT) {
+		return sinkOf(DESTROY, ComponentType.id(componentT));
+	}
+	
+	/**
+	 * Returns new buffer of deferred changes of this system. See {@link CommandBuffer}.
+	 */
+	@JECSApi(since = "0.2.0")
+	public CommandBuffer<EntityT, Component> commandBuffer() {
+		return new CommandBuffer<>(this);
+	}
+	
+	/**
+	 * Returns the scheduler of this system. See {@link Scheduler}.
+	 * <p>
+	 * Example:
+	 * <pre>
+	 * system.scheduler().add("movement", () -> system.each(Position.class, ...))
+	 *     .reads(Velocity.class).writes(Position.class);
+	 * system.scheduler().add("render", () -> ...).reads(Position.class, Sprite.class);
+	 * while(running)
+	 *     system.run();
+	 * </pre>
+	 */
+	@JECSApi(since = "0.2.0")
+	public Scheduler scheduler() {
+		return scheduler;
+	}
+	
+	/**
+	 * Run the iteration <code>action</code> holding the monitor of this system, unless the current thread runs a not
+	 * exclusive task of the {@link Scheduler}. Such tasks don't change storages and tasks that write the same components
+	 * are never run in parallel, so they iterate without waiting for each other.
+	 */
+	final void iterate(Runnable action) {
+		if(scheduler.inParallelTask()) {
+			action.run();
+			return;
+		}
+		synchronized(this) {
+			action.run();
+		}
 	}
 	
 	// Static methods using registy as accessors.
@@ -0,0 +1,195 @@
+package com.kenny.jecs.collection;
+
+import java.util.Arrays;
+
+/**
+ * Table of entities that has exactly the same set of component types. Each component type is a column
+ * of the table and each entity is a row, so the components of one type of all entities in the table
+ * lives in a single packed array.
+ * <p>
+ * Removal of a row uses swap-and-pop, so the order of rows is not stable when entities leave the table.
+ */
+public class Archetype
+{
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/**Sorted type identifiers of the table.*/
+	final int[] types;
+	/**Slots of entities in rows order.*/
+	int[] slots = new int[DEFAULT_CAPACITY];
+	/**Columns of components, in the same order as types.*/
+	Object[][] columns;
+	/**Number of rows in the table.*/
+	int size = 0;
+	/**Cached tables with one more type, indexed by type identifier.*/
+	Archetype[] next = new Archetype[0];
+	/**Cached tables with one less type, indexed by type identifier.*/
+	Archetype[] previous = new Archetype[0];
+	/**Components of the first row of the cycle moved by {@link #permute(int[])}, created on first use.*/
+	private Object[] saved;
+
+	Archetype(int[] types)
+	{
+		this.types = types;
+		this.columns = new Object[types.length][DEFAULT_CAPACITY];
+	}
+
+	/**
+	 * Return the column of <code>type</code>, or -1 if the table doesn't have this type.
+	 */
+	public final int column(int type)
+	{
+		return Arrays.binarySearch(types, type);
+	}
+
+	/**
+	 * Return true if the table has all of given <code>types</code>.
+	 */
+	public final boolean has(int[] types)
+	{
+		for(int i = 0; i < types.length; i++)
+			if(column(types[i]) < 0)
+				return false;
+		return true;
+	}
+
+	/**
+	 * Return true if the table has at least one of given <code>types</code>.
+	 */
+	public final boolean hasAny(int[] types)
+	{
+		for(int i = 0; i < types.length; i++)
+			if(column(types[i]) >= 0)
+				return true;
+		return false;
+	}
+
+	/**
+	 * Returns the sorted type identifiers of the table.
+	 */
+	public final int[] types()
+	{
+		return types.clone();
+	}
+
+	/**
+	 * Return the slot of entity in <code>row</code>.
+	 */
+	public final int slot(int row)
+	{
+		return slots[row];
+	}
+
+	/**
+	 * Return the component in <code>row</code> and <code>column</code>.
+	 */
+	public final Object get(int row, int column)
+	{
+		return columns[column][row];
+	}
+
+	/**
+	 * Returns the number of rows in the table.
+	 */
+	public final int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Add the row for the entity in <code>slot</code>, components of the row are null.
+	 *
+	 * @return The added row.
+	 */
+	final int add(int slot)
+	{
+		if(size == slots.length) {
+			int capacity = size << 1;
+			slots = Arrays.copyOf(slots, capacity);
+			for(int i = 0; i < columns.length; i++)
+				columns[i] = Arrays.copyOf(columns[i], capacity);
+		}
+
+		slots[size] = slot;
+		return size++;
+	}
+
+	/**
+	 * Remove the <code>row</code>, the last row is moved to its place.
+	 *
+	 * @return The slot of entity moved to the <code>row</code>, or -1 if the last row was removed.
+	 */
+	final int remove(int row)
+	{
+		int last = --size, moved = -1;
+		if(row != last) {
+			moved = slots[row] = slots[last];
+			for(int i = 0; i < columns.length; i++)
+				columns[i][row] = columns[i][last];
+		}
+
+		for(int i = 0; i < columns.length; i++)
+			columns[i][last] = null;
+		return moved;
+	}
+
+	/**
+	 * Move row <code>order[i]</code> to row <code>i</code>, for all rows. Rows are moved along the cycles of
+	 * permutation, only the first row of each cycle is kept aside in the buffer reused by next permutations.
+	 */
+	final void permute(int[] order)
+	{
+		if(saved == null)
+			saved = new Object[columns.length];
+		for(int i = 0; i < size; i++) {
+			if(order[i] < 0 || order[i] == i)
+				continue;
+
+			int slot = slots[i];
+			for(int c = 0; c < columns.length; c++)
+				saved[c] = columns[c][i];
+			int j = i;
+			while(order[j] != i) {
+				int next = order[j];
+				slots[j] = slots[next];
+				for(int c = 0; c < columns.length; c++)
+					columns[c][j] = columns[c][next];
+				order[j] = ~next;
+				j = next;
+			}
+			slots[j] = slot;
+			for(int c = 0; c < columns.length; c++)
+				columns[c][j] = saved[c];
+			order[j] = ~i;
+		}
+		for(int i = 0; i < size; i++)
+			if(order[i] < 0)
+				order[i] = ~order[i];
+		Arrays.fill(saved, null);
+	}
+
+	/**
+	 * Remove all rows.
+	 */
+	final void clear()
+	{
+		for(int i = 0; i < columns.length; i++)
+			Arrays.fill(columns[i], 0, size, null);
+		size = 0;
+	}
+
+	@Override
+	public String toString()
+	{
+		StringBuilder builder = new StringBuilder(Arrays.toString(types)).append("=[");
+		for(int row = 0; row < size; row++) {
+			if(row != 0)
+				builder.append(", ");
+			builder.append(slots[row]).append('=').append('[');
+			for(int i = 0; i < columns.length; i++)
+				builder.append(i != 0 ? ", " : "").append(columns[i][row]);
+			builder.append(']');
+		}
+		return builder.append(']').toString();
+	}
+}
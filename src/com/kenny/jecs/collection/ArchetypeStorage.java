@@ -0,0 +1,345 @@
+package com.kenny.jecs.collection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * {@link ComponentStorage} that keeps entities with the same set of component types together in one
+ * {@link Archetype} table. Emplacing or removing a component moves the entity row to the table with one
+ * more or one less type, transitions between tables are cached on the tables, so the table is searched
+ * only on the first transition.
+ * <p>
+ * Iteration over entities with many types visits only the tables that has all of them, and every row
+ * of these tables matches without any check per entity.
+ *
+ * @param <Component> - Component type stored by this storage.
+ */
+public class ArchetypeStorage<Component> implements ComponentStorage<Component>
+{
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/**Set of entities that owns the slots.*/
+	private final EntitySet owner;
+	/**Table without types, entities without components have no row in any table.*/
+	private final Archetype root = new Archetype(new int[0]);
+	/**All tables created by this storage.*/
+	private final List<Archetype> archetypes = new ArrayList<Archetype>();
+	/**Table of each slot, null if entity has no components.*/
+	private Archetype[] archetypeOf = new Archetype[DEFAULT_CAPACITY];
+	/**Row in the table of each slot.*/
+	private int[] rowOf = new int[DEFAULT_CAPACITY];
+
+	/**
+	 * @param owner - Set of entities that owns the slots.
+	 */
+	public ArchetypeStorage(EntitySet owner)
+	{
+		this.owner = owner;
+		archetypes.add(root);
+	}
+
+	/**
+	 * Return the table of entity in <code>slot</code>, or null if entity has no components.
+	 */
+	public final Archetype archetype(int slot)
+	{
+		return slot >= 0 && slot < archetypeOf.length ? archetypeOf[slot] : null;
+	}
+
+	/**
+	 * Returns all tables created by this storage.
+	 */
+	public final List<Archetype> archetypes()
+	{
+		return archetypes;
+	}
+
+	@Override
+	public boolean contains(int slot, int type)
+	{
+		Archetype archetype = archetype(slot);
+		return archetype != null && archetype.column(type) >= 0;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public Component get(int slot, int type)
+	{
+		Archetype archetype = archetype(slot);
+		int column = archetype != null ? archetype.column(type) : -1;
+		return column >= 0 ? (Component) archetype.columns[column][rowOf[slot]] : null;
+	}
+
+	@Override
+	public void emplace(int slot, int type, Component component)
+	{
+		if(slot >= archetypeOf.length) {
+			int capacity = Math.max(owner.capacity(), slot + 1);
+			archetypeOf = Arrays.copyOf(archetypeOf, capacity);
+			rowOf = Arrays.copyOf(rowOf, capacity);
+		}
+
+		Archetype from = archetypeOf[slot] != null ? archetypeOf[slot] : root;
+		Archetype to = next(from, type);
+		int row = to.add(slot);
+		if(from != root)
+			move(slot, from, to, row);
+		to.columns[to.column(type)][row] = component;
+		archetypeOf[slot] = to;
+		rowOf[slot] = row;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public Component replace(int slot, int type, Component component)
+	{
+		Archetype archetype = archetype(slot);
+		int column = archetype != null ? archetype.column(type) : -1;
+		if(column < 0)
+			return null;
+
+		Object[] components = archetype.columns[column];
+		Component old = (Component) components[rowOf[slot]];
+		components[rowOf[slot]] = component;
+		return old;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public Component remove(int slot, int type)
+	{
+		Archetype from = archetype(slot);
+		int column = from != null ? from.column(type) : -1;
+		if(column < 0)
+			return null;
+
+		Component old = (Component) from.columns[column][rowOf[slot]];
+		Archetype to = previous(from, type);
+		if(to == root) {
+			detach(from, rowOf[slot]);
+			archetypeOf[slot] = null;
+		} else {
+			int row = to.add(slot);
+			move(slot, from, to, row);
+			archetypeOf[slot] = to;
+			rowOf[slot] = row;
+		}
+		return old;
+	}
+
+	@Override
+	public void destroy(int slot, List<?> components)
+	{
+		Archetype archetype = archetype(slot);
+		if(archetype == null)
+			return;
+
+		detach(archetype, rowOf[slot]);
+		archetypeOf[slot] = null;
+	}
+
+	@Override
+	public int slotOf(int type, Object component)
+	{
+		for(int i = 0; i < archetypes.size(); i++) {
+			Archetype archetype = archetypes.get(i);
+			int column = archetype.column(type);
+			if(column < 0)
+				continue;
+
+			Object[] components = archetype.columns[column];
+			for(int row = 0; row < archetype.size; row++)
+				if(components[row] == component)
+					return archetype.slots[row];
+		}
+		return -1;
+	}
+
+	@Override
+	public void each(int[] types, int[] excludes, IntConsumer action)
+	{
+		for(int i = 0; i < archetypes.size(); i++) {
+			Archetype archetype = archetypes.get(i);
+			if(archetype.size == 0 || !archetype.has(types) || archetype.hasAny(excludes))
+				continue;
+
+			for(int row = archetype.size - 1; row >= 0; row = Math.min(row, archetype.size) - 1)
+				action.accept(archetype.slots[row]);
+		}
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public void each(int type, ObjIntConsumer<Component> action)
+	{
+		for(int i = 0; i < archetypes.size(); i++) {
+			Archetype archetype = archetypes.get(i);
+			int column = archetype.column(type);
+			if(column < 0)
+				continue;
+
+			for(int row = archetype.size - 1; row >= 0; row = Math.min(row, archetype.size) - 1)
+				action.accept((Component) archetype.columns[column][row], archetype.slots[row]);
+		}
+	}
+
+	@Override
+	public int size(int type)
+	{
+		int size = 0;
+		for(int i = 0; i < archetypes.size(); i++) {
+			Archetype archetype = archetypes.get(i);
+			if(archetype.column(type) >= 0)
+				size += archetype.size;
+		}
+		return size;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public void sort(int type, ToLongFunction<? super Component> key, RadixSort sort)
+	{
+		for(int i = 0; i < archetypes.size(); i++) {
+			Archetype archetype = archetypes.get(i);
+			int column = archetype.column(type);
+			if(column < 0 || archetype.size < 2)
+				continue;
+
+			long[] keys = sort.keys(archetype.size);
+			for(int row = 0; row < archetype.size; row++)
+				keys[row] = key.applyAsLong((Component) archetype.columns[column][row]);
+			archetype.permute(sort.sort(archetype.size));
+			for(int row = 0; row < archetype.size; row++)
+				rowOf[archetype.slots[row]] = row;
+		}
+	}
+
+	@Override
+	public int slotAt(int type, int index)
+	{
+		if(index < 0)
+			return -1;
+		for(int i = 0; i < archetypes.size(); i++) {
+			Archetype archetype = archetypes.get(i);
+			if(archetype.column(type) < 0)
+				continue;
+			if(index < archetype.size)
+				return archetype.slots[index];
+			index -= archetype.size;
+		}
+		return -1;
+	}
+
+	@Override
+	public void clear()
+	{
+		for(int i = 0; i < archetypes.size(); i++)
+			archetypes.get(i).clear();
+		Arrays.fill(archetypeOf, null);
+	}
+
+	@Override
+	public String toString()
+	{
+		StringBuilder builder = new StringBuilder("[");
+		for(int i = 0; i < archetypes.size(); i++) {
+			if(archetypes.get(i).size == 0)
+				continue;
+			if(builder.length() > 1)
+				builder.append(", ");
+			builder.append(archetypes.get(i));
+		}
+		return builder.append(']').toString();
+	}
+
+	/**
+	 * Copy components of entity in <code>slot</code> from its row in <code>from</code> table to the
+	 * <code>row</code> in <code>to</code> table and remove the old row. Types that not exist in
+	 * <code>to</code> table are dropped.
+	 */
+	private void move(int slot, Archetype from, Archetype to, int row)
+	{
+		int fromRow = rowOf[slot];
+		for(int i = 0; i < from.types.length; i++) {
+			int column = to.column(from.types[i]);
+			if(column >= 0)
+				to.columns[column][row] = from.columns[i][fromRow];
+		}
+		detach(from, fromRow);
+	}
+
+	/**
+	 * Remove the <code>row</code> of <code>archetype</code> and fix the row of moved entity.
+	 */
+	private void detach(Archetype archetype, int row)
+	{
+		int moved = archetype.remove(row);
+		if(moved != -1)
+			rowOf[moved] = row;
+	}
+
+	/**
+	 * Return the table with types of <code>from</code> table and <code>type</code>.
+	 */
+	private Archetype next(Archetype from, int type)
+	{
+		Archetype to = type < from.next.length ? from.next[type] : null;
+		if(to == null) {
+			int[] types = Arrays.copyOf(from.types, from.types.length + 1);
+			types[types.length - 1] = type;
+			Arrays.sort(types);
+			to = find(types);
+			link(from, to, type);
+		}
+		return to;
+	}
+
+	/**
+	 * Return the table with types of <code>from</code> table without <code>type</code>.
+	 */
+	private Archetype previous(Archetype from, int type)
+	{
+		Archetype to = type < from.previous.length ? from.previous[type] : null;
+		if(to == null) {
+			int[] types = new int[from.types.length - 1];
+			for(int i = 0, j = 0; i < from.types.length; i++)
+				if(from.types[i] != type)
+					types[j++] = from.types[i];
+			to = find(types);
+			link(to, from, type);
+		}
+		return to;
+	}
+
+	/**
+	 * Cache the transition between <code>from</code> table and <code>to</code> table that has one more
+	 * <code>type</code>.
+	 */
+	private static void link(Archetype from, Archetype to, int type)
+	{
+		if(type >= from.next.length)
+			from.next = Arrays.copyOf(from.next, type + 1);
+		if(type >= to.previous.length)
+			to.previous = Arrays.copyOf(to.previous, type + 1);
+		from.next[type] = to;
+		to.previous[type] = from;
+	}
+
+	/**
+	 * Return the table with exactly given sorted <code>types</code>, if it not exist its will be created.
+	 */
+	private Archetype find(int[] types)
+	{
+		for(int i = 0; i < archetypes.size(); i++)
+			if(Arrays.equals(archetypes.get(i).types, types))
+				return archetypes.get(i);
+
+		Archetype archetype = new Archetype(types);
+		archetypes.add(archetype);
+		return archetype;
+	}
+}
@@ -0,0 +1,245 @@
+package com.kenny.jecs.collection;
+
+import java.util.Arrays;
+
+/**
+ * Change ticks of components of one type, indexed by entity slot. The system counts ticks and each
+ * emplace or change of a component stores the current tick for the slot of its entity, so the components
+ * changed after some tick are found by comparing numbers without touching the components themselves.
+ * <p>
+ * Removed components have no slot anymore (slot may be taken by another entity), so their removal is
+ * recorded as a list of entity identifiers with the tick of removal. Removals are recorded only after
+ * {@link #observe(long)}, so types that no one watches don't keep them, and the list is pruned by
+ * {@link #prune(long)} to not grow forever.
+ * <p>
+ * Observed ticks also keep the journal of changed slots, each slot is written to it at most once per tick, so
+ * the slots changed in the last ticks are found without scanning all slots, see {@link #journaled(long)}.
+ * <p>
+ * Tick 0 means "never", so ticks of the system starts from 1.
+ */
+public class ChangeTicks
+{
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/**Tick when component of each slot was emplaced.*/
+	private long[] added = new long[DEFAULT_CAPACITY];
+	/**Tick when component of each slot was emplaced or changed last time.*/
+	private long[] changed = new long[DEFAULT_CAPACITY];
+	/**Identifiers of entities which component was removed, in the order of removal.*/
+	private long[] removedEntities = new long[DEFAULT_CAPACITY];
+	/**Tick of each removal.*/
+	private long[] removedTicks = new long[DEFAULT_CAPACITY];
+	/**Number of recorded removals.*/
+	private int removedCount = 0;
+	/**True if removals and journal are recorded, see {@link #observe(long)}.*/
+	private boolean observed = false;
+	/**Slots in the order of their changes.*/
+	private int[] journalSlots = new int[DEFAULT_CAPACITY];
+	/**Tick of each change of the journal.*/
+	private long[] journalTicks = new long[DEFAULT_CAPACITY];
+	/**Number of changes in the journal.*/
+	private int journalCount = 0;
+	/**Last tick when each slot was written to the journal.*/
+	private long[] journaled = new long[DEFAULT_CAPACITY];
+	/**All changes after this tick are in the journal.*/
+	private long journalAfter = Long.MAX_VALUE;
+
+	/**
+	 * Return the tick when component of entity in <code>slot</code> was emplaced, or 0.
+	 */
+	public final long added(int slot)
+	{
+		return slot >= 0 && slot < added.length ? added[slot] : 0L;
+	}
+
+	/**
+	 * Return the tick when component of entity in <code>slot</code> was emplaced or changed last time, or 0.
+	 */
+	public final long changed(int slot)
+	{
+		return slot >= 0 && slot < changed.length ? changed[slot] : 0L;
+	}
+
+	/**
+	 * Record that component of entity in <code>slot</code> was emplaced in <code>tick</code>.
+	 */
+	public void add(int slot, long tick)
+	{
+		assure(slot);
+		added[slot] = tick;
+		changed[slot] = tick;
+		journal(slot, tick);
+	}
+
+	/**
+	 * Record that component of entity in <code>slot</code> was changed in <code>tick</code>.
+	 */
+	public void change(int slot, long tick)
+	{
+		assure(slot);
+		changed[slot] = tick;
+		journal(slot, tick);
+	}
+
+	/**
+	 * Record that component of <code>entity</code> in <code>slot</code> was removed in <code>tick</code>.
+	 */
+	public void remove(int slot, long entity, long tick)
+	{
+		if(slot >= 0 && slot < added.length) {
+			added[slot] = 0L;
+			changed[slot] = 0L;
+		}
+		if(!observed)
+			return;
+		if(removedCount == removedEntities.length) {
+			removedEntities = Arrays.copyOf(removedEntities, removedCount << 1);
+			removedTicks = Arrays.copyOf(removedTicks, removedCount << 1);
+		}
+		removedEntities[removedCount] = entity;
+		removedTicks[removedCount++] = tick;
+	}
+
+	/**
+	 * Returns the number of recorded removals.
+	 */
+	public final int removedCount()
+	{
+		return removedCount;
+	}
+
+	/**
+	 * Return the entity of recorded removal at <code>index</code>, removals are in the order they happened.
+	 */
+	public final long removedEntity(int index)
+	{
+		return removedEntities[index];
+	}
+
+	/**
+	 * Return the tick of recorded removal at <code>index</code>.
+	 */
+	public final long removedTick(int index)
+	{
+		return removedTicks[index];
+	}
+
+	/**
+	 * Start recording removals and the journal of changes, changes made until <code>tick</code> are not in
+	 * the journal.
+	 */
+	public void observe(long tick)
+	{
+		if(observed)
+			return;
+		observed = true;
+		journalAfter = tick;
+	}
+
+	/**
+	 * Returns true if all changes made after <code>tick</code> are in the journal.
+	 */
+	public final boolean journaled(long tick)
+	{
+		return tick >= journalAfter;
+	}
+
+	/**
+	 * Returns the number of changes in the journal.
+	 */
+	public final int journalCount()
+	{
+		return journalCount;
+	}
+
+	/**
+	 * Return the slot of change at <code>index</code> of the journal, changes are in the order they happened.
+	 * Slot changed in several ticks has a change per tick, only the one with tick equal to
+	 * {@link #changed(int)} is the last one.
+	 */
+	public final int journalSlot(int index)
+	{
+		return journalSlots[index];
+	}
+
+	/**
+	 * Return the tick of change at <code>index</code> of the journal.
+	 */
+	public final long journalTick(int index)
+	{
+		return journalTicks[index];
+	}
+
+	/**
+	 * Forget removals and changes of the journal that happened before <code>tick</code>.
+	 */
+	public void prune(long tick)
+	{
+		int first = 0;
+		while(first < removedCount && removedTicks[first] < tick)
+			first++;
+		if(first != 0) {
+			System.arraycopy(removedEntities, first, removedEntities, 0, removedCount - first);
+			System.arraycopy(removedTicks, first, removedTicks, 0, removedCount - first);
+			removedCount -= first;
+		}
+
+		if(observed)
+			journalAfter = Math.max(journalAfter, tick - 1);
+		first = 0;
+		while(first < journalCount && journalTicks[first] < tick)
+			first++;
+		if(first != 0) {
+			System.arraycopy(journalSlots, first, journalSlots, 0, journalCount - first);
+			System.arraycopy(journalTicks, first, journalTicks, 0, journalCount - first);
+			journalCount -= first;
+		}
+	}
+
+	/**
+	 * Forget all ticks and removals.
+	 */
+	public void clear()
+	{
+		Arrays.fill(added, 0L);
+		Arrays.fill(changed, 0L);
+		Arrays.fill(journaled, 0L);
+		removedCount = 0;
+		journalCount = 0;
+	}
+
+	/**
+	 * Write the change of <code>slot</code> to the journal, unless it was already written in this tick.
+	 */
+	private void journal(int slot, long tick)
+	{
+		if(observed && journaled[slot] != tick)
+			append(slot, tick);
+	}
+
+	/**
+	 * Append the change to the journal, components may be marked as changed from parallel callbacks.
+	 */
+	private synchronized void append(int slot, long tick)
+	{
+		if(journaled[slot] == tick)
+			return;
+		journaled[slot] = tick;
+		if(journalCount == journalSlots.length) {
+			journalSlots = Arrays.copyOf(journalSlots, journalCount << 1);
+			journalTicks = Arrays.copyOf(journalTicks, journalCount << 1);
+		}
+		journalSlots[journalCount] = slot;
+		journalTicks[journalCount++] = tick;
+	}
+
+	private void assure(int slot)
+	{
+		if(slot >= added.length) {
+			int capacity = Math.max(added.length << 1, slot + 1);
+			added = Arrays.copyOf(added, capacity);
+			changed = Arrays.copyOf(changed, capacity);
+			journaled = Arrays.copyOf(journaled, capacity);
+		}
+	}
+}
@@ -0,0 +1,152 @@
+package com.kenny.jecs.collection;
+
+import java.util.Arrays;
+
+/**
+ * Bitsets of component types of all entities, indexed by entity slot. Bit <code>type</code> of the slot
+ * is set when entity has a component with that type identifier.
+ * <p>
+ * All bitsets lives in one flat <code>long[]</code> with the same number of words per slot, so with up to
+ * 64 component types the check of many types at once is a single word operation.
+ */
+public class ComponentMasks
+{
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/**Words of all bitsets, the bitset of slot starts at <code>slot * stride</code>.*/
+	private long[] words = new long[DEFAULT_CAPACITY];
+	/**Number of words per slot.*/
+	private int stride = 1;
+
+	/**
+	 * Return the mask with bits of all given <code>types</code>.
+	 */
+	public static long[] mask(int... types)
+	{
+		int max = 0;
+		for(int i = 0; i < types.length; i++)
+			max = Math.max(max, types[i]);
+
+		long[] mask = new long[(max >>> 6) + 1];
+		for(int i = 0; i < types.length; i++)
+			mask[types[i] >>> 6] |= 1L << types[i];
+		return mask;
+	}
+
+	/**
+	 * Return true if the <code>mask</code> has bit of <code>type</code>.
+	 */
+	public static boolean contains(long[] mask, int type)
+	{
+		int word = type >>> 6;
+		return word < mask.length && (mask[word] & (1L << type)) != 0;
+	}
+
+	/**
+	 * Return true if masks <code>a</code> and <code>b</code> has at least one common type.
+	 */
+	public static boolean intersects(long[] a, long[] b)
+	{
+		for(int i = 0, length = Math.min(a.length, b.length); i < length; i++)
+			if((a[i] & b[i]) != 0)
+				return true;
+		return false;
+	}
+
+	/**
+	 * Return true if entity in <code>slot</code> has a component of <code>type</code>.
+	 */
+	public final boolean contains(int slot, int type)
+	{
+		int word = type >>> 6;
+		if(slot < 0 || word >= stride || (long) slot * stride + word >= words.length)
+			return false;
+		return (words[slot * stride + word] & (1L << type)) != 0;
+	}
+
+	/**
+	 * Return true if entity in <code>slot</code> has components of all types of the <code>mask</code>.
+	 */
+	public final boolean containsAll(int slot, long[] mask)
+	{
+		int base = slot * stride;
+		for(int i = 0; i < mask.length; i++) {
+			long word = word(slot, base, i);
+			if((word & mask[i]) != mask[i])
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Return true if entity in <code>slot</code> has a component of at least one type of the <code>mask</code>.
+	 */
+	public final boolean containsAny(int slot, long[] mask)
+	{
+		int base = slot * stride;
+		for(int i = 0; i < mask.length; i++)
+			if((word(slot, base, i) & mask[i]) != 0)
+				return true;
+		return false;
+	}
+
+	/**
+	 * Mark that entity in <code>slot</code> has a component of <code>type</code>.
+	 */
+	public final void set(int slot, int type)
+	{
+		int word = type >>> 6;
+		if(word >= stride)
+			restride(word + 1);
+
+		int index = slot * stride + word;
+		if(index >= words.length)
+			words = Arrays.copyOf(words, Math.max(words.length << 1, (slot + 1) * stride));
+		words[index] |= 1L << type;
+	}
+
+	/**
+	 * Mark that entity in <code>slot</code> doesn't have a component of <code>type</code>.
+	 */
+	public final void unset(int slot, int type)
+	{
+		if(contains(slot, type))
+			words[slot * stride + (type >>> 6)] &= ~(1L << type);
+	}
+
+	/**
+	 * Mark that entity in <code>slot</code> doesn't have any component.
+	 */
+	public final void clear(int slot)
+	{
+		int base = slot * stride;
+		if(slot >= 0 && base < words.length)
+			Arrays.fill(words, base, base + stride, 0L);
+	}
+
+	/**
+	 * Mark that all entities doesn't have any component.
+	 */
+	public void clear()
+	{
+		Arrays.fill(words, 0L);
+	}
+
+	private long word(int slot, int base, int word)
+	{
+		return slot >= 0 && word < stride && base + word < words.length ? words[base + word] : 0L;
+	}
+
+	/**
+	 * Change the number of words per slot, bitsets of all slots are moved to their new places.
+	 */
+	private void restride(int newStride)
+	{
+		int slots = words.length / stride;
+		long[] newWords = new long[slots * newStride];
+		for(int slot = 0; slot < slots; slot++)
+			System.arraycopy(words, slot * stride, newWords, slot * newStride, stride);
+		words = newWords;
+		stride = newStride;
+	}
+}
@@ -0,0 +1,266 @@
+package com.kenny.jecs.collection;
+
+import java.util.Arrays;
+import java.util.function.ToLongFunction;
+
+/**
+ * Pool of components of a single type. Pool is a sort of specialized version of a sparse set, it holds
+ * all the instances of a single component type and all the entities to which it's assigned.
+ * <p>
+ * Entities are addressed by their slot in the owner {@link EntitySet}. Slots and components lives in
+ * two parallel packed (dense) arrays, so the <code>i</code> component belongs to the <code>i</code> slot.
+ * The sparse part is a plain array indexed by slot that holds the position in packed arrays. That makes
+ * lookup, insertion and removal constant time without any boxing, and iteration over a pool is just a
+ * walk over a single array.
+ * <p>
+ * Removal uses swap-and-pop, so the order of the packed arrays is not stable when entities are removed.
+ *
+ * @param <Component> - Component type stored by this pool.
+ */
+public class ComponentPool<Component>
+{
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/**Set of entities that owns the slots of this pool.*/
+	private final EntitySet owner;
+	/**Position+1 in packed arrays of each slot, 0 means that slot has no component in this pool.*/
+	private int[] sparse = new int[DEFAULT_CAPACITY];
+	/**Packed slots.*/
+	private int[] slots = new int[DEFAULT_CAPACITY];
+	/**Packed components, in the same order as slots.*/
+	private Object[] components = new Object[DEFAULT_CAPACITY];
+	/**Number of entity-component pairs in this pool.*/
+	private int size = 0;
+
+	public ComponentPool(EntitySet owner)
+	{
+		this.owner = owner;
+	}
+
+	/**
+	 * Return true if entity in <code>slot</code> has a component in this pool.
+	 */
+	public final boolean contains(int slot)
+	{
+		return slot >= 0 && slot < sparse.length && sparse[slot] != 0;
+	}
+
+	/**
+	 * Return the index of entity in <code>slot</code> in packed arrays, or -1 if it is not present.
+	 */
+	public final int index(int slot)
+	{
+		return slot >= 0 && slot < sparse.length ? sparse[slot] - 1 : -1;
+	}
+
+	/**
+	 * Return the component of the entity in <code>slot</code>, or null if it is not present.
+	 */
+	@SuppressWarnings("unchecked")
+	public final Component get(int slot)
+	{
+		int index = index(slot);
+		return index == -1 ? null : (Component) components[index];
+	}
+
+	/**
+	 * Assign the <code>component</code> to the entity in <code>slot</code>. The caller is responsible
+	 * to check that entity doesn't have a component in this pool yet.
+	 */
+	public final void emplace(int slot, Component component)
+	{
+		if(slot >= sparse.length)
+			sparse = Arrays.copyOf(sparse, Math.max(sparse.length << 1, slot + 1));
+		if(size == slots.length) {
+			slots = Arrays.copyOf(slots, size << 1);
+			components = Arrays.copyOf(components, size << 1);
+		}
+
+		slots[size] = slot;
+		components[size] = component;
+		sparse[slot] = ++size;
+	}
+
+	/**
+	 * Replace the component of the entity in <code>slot</code> in-place.
+	 *
+	 * @return The previous component, or null if entity doesn't have a component in this pool.
+	 */
+	@SuppressWarnings("unchecked")
+	public final Component replace(int slot, Component component)
+	{
+		int index = index(slot);
+		if(index == -1)
+			return null;
+
+		Component old = (Component) components[index];
+		components[index] = component;
+		return old;
+	}
+
+	/**
+	 * Remove the component of the entity in <code>slot</code>. The last pair in packed arrays is moved
+	 * to the place of removed one.
+	 *
+	 * @return The removed component, or null if entity doesn't have a component in this pool.
+	 */
+	@SuppressWarnings("unchecked")
+	public final Component remove(int slot)
+	{
+		int index = index(slot);
+		if(index == -1)
+			return null;
+
+		Component old = (Component) components[index];
+		int last = --size;
+		if(index != last) {
+			slots[index] = slots[last];
+			components[index] = components[last];
+			sparse[slots[index]] = index + 1;
+		}
+
+		sparse[slot] = 0;
+		components[last] = null;
+		return old;
+	}
+
+	/**
+	 * Swap the entity-component pairs in positions <code>a</code> and <code>b</code> of packed arrays.
+	 * Used by owning groups to keep their entities packed at the front of the pool.
+	 */
+	public final void swap(int a, int b)
+	{
+		if(a == b)
+			return;
+
+		int slotA = slots[a], slotB = slots[b];
+		Object component = components[a];
+		slots[a] = slotB;
+		slots[b] = slotA;
+		components[a] = components[b];
+		components[b] = component;
+		sparse[slotA] = b + 1;
+		sparse[slotB] = a + 1;
+	}
+
+	/**
+	 * Sort entity-component pairs by keys of components, pairs with equal keys keep their order.
+	 *
+	 * @param key - Key of component, see {@link RadixSort#key(long)}.
+	 * @param sort - Sort with buffers reused between calls.
+	 */
+	public final void sort(ToLongFunction<? super Component> key, RadixSort sort)
+	{
+		long[] keys = sort.keys(size);
+		for(int i = 0; i < size; i++)
+			keys[i] = key.applyAsLong(component(i));
+		permute(sort.sort(size));
+	}
+
+	/**
+	 * Move pair in position <code>order[i]</code> to position <code>i</code>, for all positions in packed arrays.
+	 * Pairs are moved along the cycles of permutation, so nothing is copied to temporary arrays.
+	 */
+	public final void permute(int[] order)
+	{
+		for(int i = 0; i < size; i++) {
+			if(order[i] < 0 || order[i] == i)
+				continue;
+
+			int slot = slots[i];
+			Object component = components[i];
+			int j = i;
+			while(order[j] != i) {
+				int next = order[j];
+				slots[j] = slots[next];
+				components[j] = components[next];
+				order[j] = ~next;
+				j = next;
+			}
+			slots[j] = slot;
+			components[j] = component;
+			order[j] = ~i;
+		}
+		for(int i = 0; i < size; i++) {
+			if(order[i] < 0)
+				order[i] = ~order[i];
+			sparse[slots[i]] = i + 1;
+		}
+	}
+
+	/**
+	 * Return the entity at <code>index</code> in packed array.
+	 */
+	public final long entity(int index)
+	{
+		return owner.id(slots[index]);
+	}
+
+	/**
+	 * Return the slot at <code>index</code> in packed array.
+	 */
+	public final int slot(int index)
+	{
+		return slots[index];
+	}
+
+	/**
+	 * Return the component at <code>index</code> in packed array.
+	 */
+	@SuppressWarnings("unchecked")
+	public final Component component(int index)
+	{
+		return (Component) components[index];
+	}
+
+	/**
+	 * Return the index of the <code>component</code> instance in packed array, or -1 if this pool
+	 * doesn't hold that instance.
+	 */
+	public final int indexOf(Object component)
+	{
+		for(int i = 0; i < size; i++)
+			if(components[i] == component)
+				return i;
+		return -1;
+	}
+
+	/**
+	 * Returns the number of entity-component pairs in this pool.
+	 */
+	public final int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Returns true if this pool is empty.
+	 */
+	public final boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	/**
+	 * Remove all entity-component pairs from this pool.
+	 */
+	public final void clear()
+	{
+		for(int i = 0; i < size; i++)
+			sparse[slots[i]] = 0;
+		Arrays.fill(components, 0, size, null);
+		size = 0;
+	}
+
+	@Override
+	public String toString()
+	{
+		StringBuilder builder = new StringBuilder("[");
+		for(int i = 0; i < size; i++) {
+			if(i != 0)
+				builder.append(", ");
+			builder.append(entity(i)).append('=').append(components[i]);
+		}
+		return builder.append(']').toString();
+	}
+}
@@ -0,0 +1,107 @@
+package com.kenny.jecs.collection;
+
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Storage of components of all entities. Entities are addressed by their slot in the owner
+ * {@link EntitySet} and component types by their dense type identifier, so the storage doesn't care
+ * about the type of entity identifiers or about the classes of components.
+ * <p>
+ * There are two implementations, chosen when the system is constructed:
+ * <ul>
+ * <li>{@link PoolStorage} keeps each component type in its own {@link ComponentPool}. Adding and removing
+ * components is cheap, iteration over one type is a walk over a single array.</li>
+ * <li>{@link ArchetypeStorage} keeps entities with the same set of component types together in a table
+ * ({@link Archetype}). Adding and removing components moves the entity between tables, but iteration over
+ * many types at once visits only the tables that has all of them, without checks per entity.</li>
+ * </ul>
+ *
+ * @param <Component> - Component type stored by this storage.
+ */
+public interface ComponentStorage<Component>
+{
+	/**
+	 * Return true if entity in <code>slot</code> has a component of <code>type</code>.
+	 */
+	boolean contains(int slot, int type);
+
+	/**
+	 * Return the component of <code>type</code> of the entity in <code>slot</code>, or null if it not present.
+	 */
+	Component get(int slot, int type);
+
+	/**
+	 * Assign the <code>component</code> of <code>type</code> to the entity in <code>slot</code>. The caller
+	 * is responsible to check that entity doesn't have a component of this type yet.
+	 */
+	void emplace(int slot, int type, Component component);
+
+	/**
+	 * Replace the component of <code>type</code> of the entity in <code>slot</code> in-place.
+	 *
+	 * @return The previous component, or null if entity doesn't have a component of this type.
+	 */
+	Component replace(int slot, int type, Component component);
+
+	/**
+	 * Remove the component of <code>type</code> from the entity in <code>slot</code>.
+	 *
+	 * @return The removed component, or null if entity doesn't have a component of this type.
+	 */
+	Component remove(int slot, int type);
+
+	/**
+	 * Remove all components of the entity in <code>slot</code>.
+	 *
+	 * @param components - All components of the entity, for storages that doesn't know the types of entity.
+	 */
+	void destroy(int slot, List<?> components);
+
+	/**
+	 * Return the slot of entity that holds the <code>component</code> instance of <code>type</code>, or -1
+	 * if no one entity holds it.
+	 */
+	int slotOf(int type, Object component);
+
+	/**
+	 * Visit the slots of all entities that has components of all given <code>types</code> and has no
+	 * component of any of <code>excludes</code> types. Slots of each pool or table are visited from the last
+	 * one, so the visited entity can be removed by the <code>action</code>.
+	 */
+	void each(int[] types, int[] excludes, IntConsumer action);
+
+	/**
+	 * Visit all components of <code>type</code> with the slots of their entities. Components are visited from
+	 * the last one to the first one, so the visited component can be removed by the <code>action</code>.
+	 */
+	void each(int type, ObjIntConsumer<Component> action);
+
+	/**
+	 * Returns the number of entities that has a component of <code>type</code>.
+	 */
+	int size(int type);
+
+	/**
+	 * Sort components of <code>type</code> in their dense storage by keys, components with equal keys keep their
+	 * order. Storage with many tables sorts each table separately, since entities cannot move between them.
+	 *
+	 * @param key - Key of component, see {@link RadixSort#key(long)}.
+	 * @param sort - Sort with buffers reused between calls.
+	 */
+	void sort(int type, ToLongFunction<? super Component> key, RadixSort sort);
+
+	/**
+	 * Return the slot of entity at <code>index</code> among entities that has a component of <code>type</code>,
+	 * in the order they are packed in the storage, or -1 if index is out of range. The index is stable only
+	 * until components of this type are emplaced or removed.
+	 */
+	int slotAt(int type, int index);
+
+	/**
+	 * Remove all components of all entities.
+	 */
+	void clear();
+}
@@ -0,0 +1,368 @@
+package com.kenny.jecs.collection;
+
+import java.util.Arrays;
+
+/**
+ * Primitive sparse set of entity identifiers. Each entity in the set owns a <b>slot</b>, a small
+ * integer that is stable while the entity is alive and is reused after the entity is removed. Slots
+ * are used to index other per-entity storages (component pools, component sequences) with plain
+ * arrays instead of maps.
+ * <p>
+ * Entities are also kept in packed order for iteration, where <code>index</code> is a position in
+ * that order. Removal shifts the following entities back, so the order of insertion (or the one written
+ * by sorts) is kept when entities are removed, like removal from a list.
+ * <p>
+ * Identifiers created by the set itself ({@link #create(int)}) are generational: low <code>indexBits</code>
+ * bits is the slot and the next bits is the version of the slot, which is increased each time the slot
+ * is released. So creation is constant time and never collides, and stale identifiers of destroyed
+ * entities are not found by {@link #contains(long)} even when the slot is reused. Identifiers inserted
+ * by the user ({@link #add(long)}) can be any value, the ones that doesn't encode their slot are mapped
+ * by the hash table of implementation.
+ * <p>
+ * Identifiers are passed as <code>long</code> so the same interface can hold <code>short</code>,
+ * <code>int</code> and <code>long</code> identifiers, storage of the identifiers is up to implementation.
+ * Nothing here boxes the identifiers.
+ */
+public abstract class EntitySet
+{
+	protected static final int DEFAULT_CAPACITY = 16;
+
+	/**Slots in packed (iteration) order.*/
+	protected int[] packed = new int[DEFAULT_CAPACITY];
+	/**Position in packed order of each slot.*/
+	protected int[] positions = new int[DEFAULT_CAPACITY];
+	/**Stack of released slots to be reused.*/
+	protected int[] released = new int[DEFAULT_CAPACITY];
+	/**Number of released slots.*/
+	protected int releasedCount = 0;
+	/**Number of slots ever used, i.e upper bound of all slots.*/
+	protected int slotCount = 0;
+	/**Number of entities in the set.*/
+	protected int size = 0;
+	/**Current version of each slot.*/
+	protected int[] versions = new int[DEFAULT_CAPACITY];
+	/**Number of low bits of identifier used by slot.*/
+	protected final int indexBits;
+	/**Mask of slot bits of identifier.*/
+	protected final long indexMask;
+	/**Mask of version, version bits are placed right after slot bits.*/
+	protected final int versionMask;
+
+	/**
+	 * @param indexBits - Number of low bits of identifier used by slot.
+	 * @param versionBits - Number of bits of identifier used by version, placed after slot bits.
+	 */
+	protected EntitySet(int indexBits, int versionBits)
+	{
+		this.indexBits = indexBits;
+		this.indexMask = (1L << indexBits) - 1;
+		this.versionMask = (int) ((1L << versionBits) - 1);
+	}
+
+	/**
+	 * Return the slot of <code>entity</code> from hash table of implementation, or -1 if it not mapped.
+	 */
+	protected abstract int lookup(long entity);
+
+	/**
+	 * Return the entity identifier that owns the <code>slot</code>.
+	 */
+	public abstract long id(int slot);
+
+	/**
+	 * Store <code>entity</code> identifier in the <code>slot</code>, if <code>hash</code> is true it also
+	 * should be mapped by hash table.
+	 */
+	protected abstract void bind(long entity, int slot, boolean hash);
+
+	/**
+	 * Remove mapping of <code>entity</code> identifier from hash table.
+	 */
+	protected abstract void unbind(long entity);
+
+	/**
+	 * Grow the storage of identifiers to hold at least <code>capacity</code> slots.
+	 */
+	protected abstract void grow(int capacity);
+
+	/**
+	 * Return the slot of <code>entity</code>, or -1 if it not exist in the set.
+	 */
+	public final int slot(long entity)
+	{
+		// Generational identifier holds its slot, so only the identifiers inserted by user need hashing.
+		long slot = entity & indexMask;
+		if(slot < slotCount && id((int) slot) == entity && alive((int) slot))
+			return (int) slot;
+		return lookup(entity);
+	}
+
+	/**
+	 * Return true if <code>entity</code> exist in the set.
+	 */
+	public final boolean contains(long entity)
+	{
+		return slot(entity) != -1;
+	}
+
+	/**
+	 * Return true if <code>slot</code> is owned by some entity.
+	 */
+	public final boolean alive(int slot)
+	{
+		int position = positions[slot];
+		return position < size && packed[position] == slot;
+	}
+
+	/**
+	 * Create new generational identifier and add it to the set. Released slots are reused first, with
+	 * the version increased on release.
+	 *
+	 * @param version - Initial version, used only if a slot is used first time.
+	 *
+	 * @return New identifier, or -1 if all slots that can be encoded by <code>indexBits</code> are in use.
+	 */
+	public final long create(int version)
+	{
+		if(releasedCount == 0 && slotCount > indexMask)
+			return -1;
+
+		boolean fresh = releasedCount == 0;
+		int slot = acquire();
+		if(fresh)
+			versions[slot] = version & versionMask;
+
+		// Identifier can be already taken by one inserted by user, then take the next version.
+		long entity = encode(slot);
+		while(lookup(entity) != -1) {
+			versions[slot] = (versions[slot] + 1) & versionMask;
+			entity = encode(slot);
+		}
+
+		link(entity, slot);
+		return entity;
+	}
+
+	/**
+	 * Add <code>entity</code> to the set. The caller is responsible to check that entity not exist
+	 * in the set yet.
+	 *
+	 * @return The slot assigned to the entity.
+	 */
+	public final int add(long entity)
+	{
+		int slot = acquire();
+		link(entity, slot);
+		return slot;
+	}
+
+	/**
+	 * Return the version of <code>entity</code> identifier.
+	 */
+	public final int version(long entity)
+	{
+		return (int) (entity >>> indexBits) & versionMask;
+	}
+
+	/**
+	 * Return the maximum number of entities with generational identifiers.
+	 */
+	public final long limit()
+	{
+		return indexMask + 1;
+	}
+
+	private long encode(int slot)
+	{
+		return ((long) versions[slot] << indexBits) | slot;
+	}
+
+	private int acquire()
+	{
+		if(releasedCount > 0)
+			return released[--releasedCount];
+
+		int slot = slotCount++;
+		if(slot == positions.length) {
+			int capacity = slot << 1;
+			positions = Arrays.copyOf(positions, capacity);
+			versions = Arrays.copyOf(versions, capacity);
+			grow(capacity);
+		}
+		return slot;
+	}
+
+	private void link(long entity, int slot)
+	{
+		if(size == packed.length)
+			packed = Arrays.copyOf(packed, size << 1);
+
+		bind(entity, slot, (entity & indexMask) != slot);
+		positions[slot] = size;
+		packed[size++] = slot;
+	}
+
+	/**
+	 * Remove <code>entity</code> from the set. Entities after the removed one are shifted back by one
+	 * position, so removal costs the number of entities after it.
+	 *
+	 * @return The released slot, or -1 if entity not exist in the set.
+	 */
+	public final int remove(long entity)
+	{
+		int slot = slot(entity);
+		if(slot == -1)
+			return -1;
+
+		if((entity & indexMask) != slot)
+			unbind(entity);
+		versions[slot] = (versions[slot] + 1) & versionMask;
+		int position = positions[slot];
+		System.arraycopy(packed, position + 1, packed, position, --size - position);
+		for(int i = position; i < size; i++)
+			positions[packed[i]] = i;
+
+		if(releasedCount == released.length)
+			released = Arrays.copyOf(released, releasedCount << 1);
+		released[releasedCount++] = slot;
+		return slot;
+	}
+
+	/**
+	 * Return the entity at <code>index</code> in packed order.
+	 */
+	public final long get(int index)
+	{
+		return id(packed[index]);
+	}
+
+	/**
+	 * Return the slot of entity at <code>index</code> in packed order.
+	 */
+	public final int slotAt(int index)
+	{
+		return packed[index];
+	}
+
+	/**
+	 * Return the position of <code>entity</code> in packed order, or -1 if it not exist in the set.
+	 */
+	public final int indexOf(long entity)
+	{
+		int slot = slot(entity);
+		return slot == -1 ? -1 : positions[slot];
+	}
+
+	/**
+	 * Return the position of entity of alive <code>slot</code> in packed order.
+	 */
+	public final int indexOfSlot(int slot)
+	{
+		return positions[slot];
+	}
+
+	/**
+	 * Place the entity of <code>slot</code> at <code>index</code> in packed order. Used to write back a
+	 * permutation of the packed order, entity previously placed at <code>index</code> should be
+	 * placed somewhere else by the caller. Slots should be resolved before the permutation is written,
+	 * because {@link #slot(long)} relies on the packed order.
+	 */
+	public final void set(int index, int slot)
+	{
+		packed[index] = slot;
+		positions[slot] = index;
+	}
+
+	/**
+	 * Swap two entities in packed order.
+	 */
+	public final void swap(int a, int b)
+	{
+		int slotA = packed[a], slotB = packed[b];
+		packed[a] = slotB;
+		packed[b] = slotA;
+		positions[slotA] = b;
+		positions[slotB] = a;
+	}
+
+	/**
+	 * Returns the number of entities in the set.
+	 */
+	public final int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Returns true if the set is empty.
+	 */
+	public final boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	/**
+	 * Returns the upper bound of all slots, so any array indexed by slot of this set should have at
+	 * least this length.
+	 */
+	public final int capacity()
+	{
+		return positions.length;
+	}
+
+	/**
+	 * Remove all entities from the set.
+	 */
+	public void clear()
+	{
+		while(size > 0)
+			remove(get(size - 1));
+	}
+
+	@Override
+	public boolean equals(Object obj)
+	{
+		if(this == obj)
+			return true;
+		if(!(obj instanceof EntitySet))
+			return false;
+
+		EntitySet other = (EntitySet) obj;
+		if(size != other.size)
+			return false;
+		for(int i = 0; i < size; i++)
+			if(get(i) != other.get(i))
+				return false;
+		return true;
+	}
+
+	@Override
+	public int hashCode()
+	{
+		int result = 1;
+		for(int i = 0; i < size; i++)
+			result = 31 * result + Long.hashCode(get(i));
+		return result;
+	}
+
+	@Override
+	public String toString()
+	{
+		StringBuilder builder = new StringBuilder("[");
+		for(int i = 0; i < size; i++) {
+			if(i != 0)
+				builder.append(", ");
+			builder.append(get(i));
+		}
+		return builder.append(']').toString();
+	}
+
+	/**
+	 * Mixes the bits of identifier to spread sequential identifiers over hash table.
+	 */
+	protected static int mix(long entity)
+	{
+		long h = entity * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+}
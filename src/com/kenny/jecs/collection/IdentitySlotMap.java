@@ -0,0 +1,185 @@
+package com.kenny.jecs.collection;
+
+import java.util.Arrays;
+
+/**
+ * Map from component instances to slots of entities that holds them. Keys are compared by identity
+ * (<code>==</code>), like {@link java.util.IdentityHashMap}, but slots are stored in a primitive array, so
+ * lookup, insertion and removal are constant time without boxing.
+ * <p>
+ * The table uses open addressing with linear probing, removal shifts the following entries back
+ * instead of leaving tombstones, so lookups stay short after many removals.
+ * <p>
+ * Instance may be shared by several entities, it's mapped to the last slot it was put to and other slots
+ * that still hold it are kept in the order they were put, so when the mapped slot is removed the instance
+ * is mapped back to the previous one that holds it.
+ */
+public class IdentitySlotMap
+{
+	private static final int DEFAULT_CAPACITY = 32;
+
+	/**Component instances, null means that the cell is free.*/
+	private Object[] keys = new Object[DEFAULT_CAPACITY];
+	/**Slot of each key.*/
+	private int[] slots = new int[DEFAULT_CAPACITY];
+	/**Other slots that hold each shared key, in the order they were put, null if key is not shared.*/
+	private int[][] others = new int[DEFAULT_CAPACITY][];
+	/**Number of keys in this map.*/
+	private int size = 0;
+
+	/**
+	 * Return the slot of entity that holds the <code>component</code> instance, or -1 if there is no one.
+	 */
+	public final int get(Object component)
+	{
+		if(component == null)
+			return -1;
+
+		int mask = keys.length - 1;
+		for(int i = hash(component) & mask; keys[i] != null; i = (i + 1) & mask)
+			if(keys[i] == component)
+				return slots[i];
+		return -1;
+	}
+
+	/**
+	 * Map the <code>component</code> instance to the <code>slot</code>. If it was already mapped to another
+	 * slot, the instance is shared and the previous slot is remembered as its other holder.
+	 */
+	public void put(Object component, int slot)
+	{
+		if(component == null)
+			return;
+		if((size + 1) << 1 > keys.length)
+			rehash(keys.length << 1);
+
+		int mask = keys.length - 1;
+		int i = hash(component) & mask;
+		for(; keys[i] != null; i = (i + 1) & mask) {
+			if(keys[i] == component) {
+				if(slots[i] != slot) {
+					int[] holders = without(others[i], slot);
+					holders = holders == null ? new int[1] : Arrays.copyOf(holders, holders.length + 1);
+					holders[holders.length - 1] = slots[i];
+					others[i] = holders;
+					slots[i] = slot;
+				}
+				return;
+			}
+		}
+		keys[i] = component;
+		slots[i] = slot;
+		others[i] = null;
+		size++;
+	}
+
+	/**
+	 * Forget that <code>component</code> instance is held by the <code>slot</code>. Shared instance mapped to
+	 * the slot is mapped back to the last of other slots that hold it, the mapping is removed only when no one
+	 * slot holds the instance.
+	 *
+	 * @return True if mapping was removed.
+	 */
+	public boolean remove(Object component, int slot)
+	{
+		if(component == null)
+			return false;
+
+		int mask = keys.length - 1;
+		int i = hash(component) & mask;
+		for(; keys[i] != component; i = (i + 1) & mask)
+			if(keys[i] == null)
+				return false;
+		if(slots[i] != slot) {
+			others[i] = without(others[i], slot);
+			return false;
+		}
+		if(others[i] != null) {
+			int[] holders = others[i];
+			slots[i] = holders[holders.length - 1];
+			others[i] = holders.length == 1 ? null : Arrays.copyOf(holders, holders.length - 1);
+			return false;
+		}
+
+		// Shift back the entries of the same run that would not be found after the cell is freed.
+		for(int next = (i + 1) & mask; keys[next] != null; next = (next + 1) & mask) {
+			int home = hash(keys[next]) & mask;
+			if(((next - home) & mask) >= ((next - i) & mask)) {
+				keys[i] = keys[next];
+				slots[i] = slots[next];
+				others[i] = others[next];
+				i = next;
+			}
+		}
+		keys[i] = null;
+		others[i] = null;
+		size--;
+		return true;
+	}
+
+	/**
+	 * Returns the number of mapped instances.
+	 */
+	public final int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Remove all mappings.
+	 */
+	public void clear()
+	{
+		Arrays.fill(keys, null);
+		Arrays.fill(others, null);
+		size = 0;
+	}
+
+	private void rehash(int capacity)
+	{
+		Object[] oldKeys = keys;
+		int[] oldSlots = slots;
+		int[][] oldOthers = others;
+		keys = new Object[capacity];
+		slots = new int[capacity];
+		others = new int[capacity][];
+
+		int mask = capacity - 1;
+		for(int j = 0; j < oldKeys.length; j++) {
+			if(oldKeys[j] == null)
+				continue;
+			int i = hash(oldKeys[j]) & mask;
+			while(keys[i] != null)
+				i = (i + 1) & mask;
+			keys[i] = oldKeys[j];
+			slots[i] = oldSlots[j];
+			others[i] = oldOthers[j];
+		}
+	}
+
+	/**
+	 * Return <code>holders</code> without the <code>slot</code>, or null if no one is left.
+	 */
+	private static int[] without(int[] holders, int slot)
+	{
+		if(holders == null)
+			return null;
+		for(int i = 0; i < holders.length; i++) {
+			if(holders[i] != slot)
+				continue;
+			if(holders.length == 1)
+				return null;
+			int[] result = Arrays.copyOf(holders, holders.length - 1);
+			System.arraycopy(holders, i + 1, result, i, holders.length - 1 - i);
+			return result;
+		}
+		return holders;
+	}
+
+	private static int hash(Object component)
+	{
+		// Identity hashes are not well spread in low bits, mix them like HashMap does.
+		int h = System.identityHashCode(component);
+		return h ^ (h >>> 16);
+	}
+}
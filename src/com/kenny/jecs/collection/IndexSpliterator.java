@@ -0,0 +1,156 @@
+package com.kenny.jecs.collection;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Spliterator over positions <code>[from, to)</code> of a dense array, elements are taken by position with
+ * <code>element</code> function. Splitting just halves the range without copying anything, and the size of
+ * each part is known exactly, so parallel streams over pools, sets of entities, groups and views split as
+ * well as streams over arrays.
+ * <p>
+ * Range is fixed when spliterator is created, the backing storage should not be changed until the
+ * traversal is finished.
+ *
+ * @param <T> - Type of elements.
+ */
+public class IndexSpliterator<T> implements Spliterator<T>
+{
+	/**Characteristics of all index spliterators.*/
+	public static final int CHARACTERISTICS = ORDERED | SIZED | SUBSIZED;
+
+	/**Element at position.*/
+	private final IntFunction<T> element;
+	/**Next position.*/
+	private int from;
+	/**End of range, exclusive.*/
+	private final int to;
+	/**Extra characteristics, like NONNULL or DISTINCT.*/
+	private final int characteristics;
+
+	/**
+	 * @param element - Element at position.
+	 * @param from - First position, inclusive.
+	 * @param to - Last position, exclusive.
+	 * @param characteristics - Extra characteristics added to {@link #CHARACTERISTICS}.
+	 */
+	public IndexSpliterator(IntFunction<T> element, int from, int to, int characteristics)
+	{
+		this.element = element;
+		this.from = from;
+		this.to = to;
+		this.characteristics = CHARACTERISTICS | characteristics;
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super T> action)
+	{
+		if(from >= to)
+			return false;
+		action.accept(element.apply(from++));
+		return true;
+	}
+
+	@Override
+	public void forEachRemaining(Consumer<? super T> action)
+	{
+		for(int i = from; i < to; i++)
+			action.accept(element.apply(i));
+		from = to;
+	}
+
+	@Override
+	public Spliterator<T> trySplit()
+	{
+		int middle = (from + to) >>> 1;
+		if(middle <= from)
+			return null;
+		Spliterator<T> prefix = new IndexSpliterator<T>(element, from, middle, characteristics);
+		from = middle;
+		return prefix;
+	}
+
+	@Override
+	public long estimateSize()
+	{
+		return to - from;
+	}
+
+	@Override
+	public int characteristics()
+	{
+		return characteristics;
+	}
+
+	/**
+	 * Primitive version of {@link IndexSpliterator}, that doesn't box the elements.
+	 */
+	public static class OfInt implements Spliterator.OfInt
+	{
+		/**Element at position.*/
+		private final IntUnaryOperator element;
+		/**Next position.*/
+		private int from;
+		/**End of range, exclusive.*/
+		private final int to;
+		/**Extra characteristics, like DISTINCT.*/
+		private final int characteristics;
+
+		/**
+		 * @param element - Element at position.
+		 * @param from - First position, inclusive.
+		 * @param to - Last position, exclusive.
+		 * @param characteristics - Extra characteristics added to {@link #CHARACTERISTICS}.
+		 */
+		public OfInt(IntUnaryOperator element, int from, int to, int characteristics)
+		{
+			this.element = element;
+			this.from = from;
+			this.to = to;
+			this.characteristics = CHARACTERISTICS | characteristics;
+		}
+
+		@Override
+		public boolean tryAdvance(IntConsumer action)
+		{
+			if(from >= to)
+				return false;
+			action.accept(element.applyAsInt(from++));
+			return true;
+		}
+
+		@Override
+		public void forEachRemaining(IntConsumer action)
+		{
+			for(int i = from; i < to; i++)
+				action.accept(element.applyAsInt(i));
+			from = to;
+		}
+
+		@Override
+		public Spliterator.OfInt trySplit()
+		{
+			int middle = (from + to) >>> 1;
+			if(middle <= from)
+				return null;
+			Spliterator.OfInt prefix = new IndexSpliterator.OfInt(element, from, middle, characteristics);
+			from = middle;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize()
+		{
+			return to - from;
+		}
+
+		@Override
+		public int characteristics()
+		{
+			return characteristics;
+		}
+	}
+}
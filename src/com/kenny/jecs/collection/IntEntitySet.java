@@ -0,0 +1,142 @@
+package com.kenny.jecs.collection;
+
+import java.util.Arrays;
+
+/**
+ * {@link EntitySet} of <code>int</code> (and <code>short</code>) identifiers. Identifiers are stored in plain
+ * <code>int</code> arrays. Identifiers inserted by user that doesn't encode their slot are mapped with an
+ * open addressing hash table, so no lookup, insertion or removal allocates.
+ */
+public class IntEntitySet extends EntitySet
+{
+	private static final int EMPTY = -1;
+
+	/**Identifier of each slot.*/
+	private int[] ids = new int[DEFAULT_CAPACITY];
+	/**Keys of hash table.*/
+	private int[] keys = new int[DEFAULT_CAPACITY << 1];
+	/**Slots of hash table, {@link #EMPTY} marks a free bucket.*/
+	private int[] values = newValues(DEFAULT_CAPACITY << 1);
+	/**Number of mapped identifiers.*/
+	private int mapped = 0;
+
+	/**
+	 * Creates the set with 22 bits of slot and 9 bits of version, sign bit is never used.
+	 */
+	public IntEntitySet()
+	{
+		this(22, 9);
+	}
+
+	/**
+	 * @param indexBits - Number of low bits of identifier used by slot.
+	 * @param versionBits - Number of bits of identifier used by version, placed after slot bits.
+	 */
+	public IntEntitySet(int indexBits, int versionBits)
+	{
+		super(indexBits, versionBits);
+	}
+
+	@Override
+	protected final int lookup(long entity)
+	{
+		if(mapped == 0 || (int) entity != entity)
+			return -1;
+
+		int id = (int) entity, mask = keys.length - 1;
+		for(int i = mix(id) & mask; values[i] != EMPTY; i = (i + 1) & mask)
+			if(keys[i] == id)
+				return values[i];
+		return -1;
+	}
+
+	@Override
+	public final long id(int slot)
+	{
+		return ids[slot];
+	}
+
+	/**
+	 * Return the entity identifier that owns the <code>slot</code>.
+	 */
+	public final int intId(int slot)
+	{
+		return ids[slot];
+	}
+
+	/**
+	 * Return the entity at <code>index</code> in packed order.
+	 */
+	public final int getInt(int index)
+	{
+		return ids[packed[index]];
+	}
+
+	@Override
+	protected void bind(long entity, int slot, boolean hash)
+	{
+		int id = (int) entity;
+		ids[slot] = id;
+		if(!hash)
+			return;
+		if((mapped + 1) << 1 > keys.length)
+			rehash(keys.length << 1);
+
+		int mask = keys.length - 1, i = mix(id) & mask;
+		while(values[i] != EMPTY)
+			i = (i + 1) & mask;
+		keys[i] = id;
+		values[i] = slot;
+		mapped++;
+	}
+
+	@Override
+	protected void unbind(long entity)
+	{
+		int id = (int) entity, mask = keys.length - 1, i = mix(id) & mask;
+		while(keys[i] != id || values[i] == EMPTY)
+			i = (i + 1) & mask;
+
+		// Backward shift deletion, keeps probe sequences without tombstones.
+		for(int next = (i + 1) & mask; values[next] != EMPTY; next = (next + 1) & mask) {
+			int home = mix(keys[next]) & mask;
+			if(((next - home) & mask) >= ((next - i) & mask)) {
+				keys[i] = keys[next];
+				values[i] = values[next];
+				i = next;
+			}
+		}
+		values[i] = EMPTY;
+		mapped--;
+	}
+
+	@Override
+	protected void grow(int capacity)
+	{
+		ids = Arrays.copyOf(ids, capacity);
+	}
+
+	private void rehash(int capacity)
+	{
+		int[] oldKeys = keys, oldValues = values;
+		keys = new int[capacity];
+		values = newValues(capacity);
+		int mask = capacity - 1;
+		for(int j = 0; j < oldKeys.length; j++) {
+			if(oldValues[j] == EMPTY)
+				continue;
+			int i = mix(oldKeys[j]) & mask;
+			while(values[i] != EMPTY)
+				i = (i + 1) & mask;
+			keys[i] = oldKeys[j];
+			values[i] = oldValues[j];
+		}
+	}
+
+	private static int[] newValues(int capacity)
+	{
+		int[] values = new int[capacity];
+		Arrays.fill(values, EMPTY);
+		return values;
+	}
+}
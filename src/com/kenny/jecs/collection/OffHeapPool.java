@@ -0,0 +1,400 @@
+package com.kenny.jecs.collection;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Pool of components with only primitive fields, stored off-heap as struct-of-arrays. Each field of the
+ * component class is a column in its own direct {@link ByteBuffer}, so the values of one field of all
+ * components are packed one after another and the component objects are not kept at all.
+ * <p>
+ * Components are copied into the columns on {@link #emplace(int, Object)} and are materialized as new
+ * objects on {@link #get(int)}, changes of the returned object are not visible until it's written back
+ * by {@link #write(int, Object)}. For linear scans without any objects use typed accessors by
+ * <code>index</code> (dense position in the pool) and <code>field</code> (column from {@link #field(String)}).
+ * <p>
+ * Like {@link ComponentPool}, entities are addressed by slot and removal uses swap-and-pop.
+ *
+ * @param <Component> - Component type stored by this pool.
+ */
+public class OffHeapPool<Component>
+{
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/**Class of components.*/
+	private final Class<Component> type;
+	/**Names of fields in columns order.*/
+	private final String[] names;
+	/**Primitive types of fields in columns order.*/
+	private final Class<?>[] kinds;
+	/**Size in bytes of one value in each column.*/
+	private final int[] widths;
+	/**Accessors of fields in columns order.*/
+	private final VarHandle[] handles;
+	/**No-args constructor of component class.*/
+	private final MethodHandle constructor;
+	/**Columns of values, one per field.*/
+	private ByteBuffer[] columns;
+	/**Position of each slot in pool plus one, zero if slot is not in pool.*/
+	private int[] sparse = new int[DEFAULT_CAPACITY];
+	/**Slots of entities in pool order.*/
+	private int[] slots = new int[DEFAULT_CAPACITY];
+	/**Number of components in pool.*/
+	private int size = 0;
+
+	/**
+	 * @param type - Class of components, all its instance fields should be primitive and class should have
+	 * a constructor without arguments.
+	 *
+	 * @throws IllegalArgumentException if class has not primitive instance field or has no such constructor.
+	 */
+	public OffHeapPool(Class<Component> type)
+	{
+		this.type = type;
+
+		List<Field> fields = new ArrayList<Field>();
+		for(Field field : type.getDeclaredFields()) {
+			if(Modifier.isStatic(field.getModifiers()) || field.isSynthetic())
+				continue;
+			if(!field.getType().isPrimitive())
+				throw new IllegalArgumentException("Field " + field.getName() + " of " + type.getName() + " is not primitive.");
+			fields.add(field);
+		}
+
+		names = new String[fields.size()];
+		kinds = new Class<?>[fields.size()];
+		widths = new int[fields.size()];
+		handles = new VarHandle[fields.size()];
+		columns = new ByteBuffer[fields.size()];
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+			for(int i = 0; i < fields.size(); i++) {
+				Field field = fields.get(i);
+				names[i] = field.getName();
+				kinds[i] = field.getType();
+				widths[i] = width(kinds[i]);
+				handles[i] = lookup.unreflectVarHandle(field);
+				columns[i] = allocate(DEFAULT_CAPACITY * widths[i]);
+			}
+			constructor = lookup.findConstructor(type, MethodType.methodType(void.class)).asType(MethodType.methodType(Object.class));
+		} catch (IllegalAccessException e) {
+			throw new IllegalArgumentException("Cannot access fields of " + type.getName() + ".", e);
+		} catch (NoSuchMethodException e) {
+			throw new IllegalArgumentException(type.getName() + " doesn't have constructor without arguments.", e);
+		}
+	}
+
+	/**
+	 * Returns the class of components.
+	 */
+	public final Class<Component> type()
+	{
+		return type;
+	}
+
+	/**
+	 * Return the column of field with <code>name</code>, or -1 if component doesn't have such field.
+	 */
+	public final int field(String name)
+	{
+		for(int i = 0; i < names.length; i++)
+			if(names[i].equals(name))
+				return i;
+		return -1;
+	}
+
+	/**
+	 * Return true if entity in <code>slot</code> has a component in this pool.
+	 */
+	public final boolean contains(int slot)
+	{
+		return slot >= 0 && slot < sparse.length && sparse[slot] != 0;
+	}
+
+	/**
+	 * Return the position of entity in <code>slot</code> in this pool, or -1 if it not exist.
+	 */
+	public final int index(int slot)
+	{
+		return contains(slot) ? sparse[slot] - 1 : -1;
+	}
+
+	/**
+	 * Return the slot of entity in position <code>index</code>.
+	 */
+	public final int slot(int index)
+	{
+		return slots[index];
+	}
+
+	/**
+	 * Copy fields of <code>component</code> to the columns for entity in <code>slot</code>. The caller is
+	 * responsible to check that entity doesn't have a component in this pool yet.
+	 */
+	public void emplace(int slot, Component component)
+	{
+		if(slot >= sparse.length)
+			sparse = Arrays.copyOf(sparse, Math.max(sparse.length << 1, slot + 1));
+		if(size == slots.length) {
+			slots = Arrays.copyOf(slots, size << 1);
+			for(int i = 0; i < columns.length; i++)
+				columns[i] = allocate(slots.length * widths[i]).put(columns[i].clear()).clear();
+		}
+
+		slots[size] = slot;
+		sparse[slot] = ++size;
+		store(size - 1, component);
+	}
+
+	/**
+	 * Copy fields of <code>component</code> to the columns of existing entity in <code>slot</code>.
+	 *
+	 * @return True if entity has a component in this pool.
+	 */
+	public boolean write(int slot, Component component)
+	{
+		int index = index(slot);
+		if(index != -1)
+			store(index, component);
+		return index != -1;
+	}
+
+	/**
+	 * Return new component object with fields of entity in <code>slot</code>, or null if it not exist.
+	 */
+	public Component get(int slot)
+	{
+		int index = index(slot);
+		return index != -1 ? read(index, instance()) : null;
+	}
+
+	/**
+	 * Copy values in position <code>index</code> to fields of <code>component</code>.
+	 *
+	 * @return The same component.
+	 */
+	public Component read(int index, Component component)
+	{
+		for(int i = 0; i < columns.length; i++) {
+			ByteBuffer column = columns[i];
+			int offset = index * widths[i];
+			Class<?> kind = kinds[i];
+			VarHandle handle = handles[i];
+			if(kind == float.class)        handle.set(component, column.getFloat(offset));
+			else if(kind == int.class)     handle.set(component, column.getInt(offset));
+			else if(kind == double.class)  handle.set(component, column.getDouble(offset));
+			else if(kind == long.class)    handle.set(component, column.getLong(offset));
+			else if(kind == short.class)   handle.set(component, column.getShort(offset));
+			else if(kind == char.class)    handle.set(component, column.getChar(offset));
+			else if(kind == byte.class)    handle.set(component, column.get(offset));
+			else                           handle.set(component, column.get(offset) != 0);
+		}
+		return component;
+	}
+
+	/**
+	 * Remove the component of entity in <code>slot</code>, the last component is moved to its place.
+	 *
+	 * @return True if entity had a component in this pool.
+	 */
+	public boolean remove(int slot)
+	{
+		int index = index(slot);
+		if(index == -1)
+			return false;
+
+		int last = --size;
+		if(index != last) {
+			int moved = slots[index] = slots[last];
+			sparse[moved] = index + 1;
+			for(int i = 0; i < columns.length; i++) {
+				int width = widths[i];
+				ByteBuffer column = columns[i];
+				for(int b = 0; b < width; b++)
+					column.put(index * width + b, column.get(last * width + b));
+			}
+		}
+		sparse[slot] = 0;
+		return true;
+	}
+
+	public final float getFloat(int index, int field)            { return columns[field].getFloat(index << 2); }
+	public final void setFloat(int index, int field, float v)     { columns[field].putFloat(index << 2, v); }
+	public final int getInt(int index, int field)                { return columns[field].getInt(index << 2); }
+	public final void setInt(int index, int field, int v)         { columns[field].putInt(index << 2, v); }
+	public final double getDouble(int index, int field)          { return columns[field].getDouble(index << 3); }
+	public final void setDouble(int index, int field, double v)   { columns[field].putDouble(index << 3, v); }
+	public final long getLong(int index, int field)              { return columns[field].getLong(index << 3); }
+	public final void setLong(int index, int field, long v)       { columns[field].putLong(index << 3, v); }
+	public final short getShort(int index, int field)            { return columns[field].getShort(index << 1); }
+	public final void setShort(int index, int field, short v)     { columns[field].putShort(index << 1, v); }
+	public final char getChar(int index, int field)              { return columns[field].getChar(index << 1); }
+	public final void setChar(int index, int field, char v)       { columns[field].putChar(index << 1, v); }
+	public final byte getByte(int index, int field)              { return columns[field].get(index); }
+	public final void setByte(int index, int field, byte v)       { columns[field].put(index, v); }
+	public final boolean getBoolean(int index, int field)        { return columns[field].get(index) != 0; }
+	public final void setBoolean(int index, int field, boolean v) { columns[field].put(index, (byte) (v ? 1 : 0)); }
+
+	/**
+	 * Sort components by keys, components with equal keys keep their order. Keys are read through one
+	 * reused component object, then values of each column are moved along the cycles of permutation.
+	 *
+	 * @param key - Key of component, see {@link RadixSort#key(long)}.
+	 * @param sort - Sort with buffers reused between calls.
+	 */
+	public void sort(ToLongFunction<? super Component> key, RadixSort sort)
+	{
+		long[] keys = sort.keys(size);
+		Component component = instance();
+		for(int i = 0; i < size; i++)
+			keys[i] = key.applyAsLong(read(i, component));
+		int[] order = sort.sort(size);
+
+		for(int c = -1; c < columns.length; c++) {
+			for(int i = 0; i < size; i++) {
+				if(order[i] < 0 || order[i] == i)
+					continue;
+
+				long saved = load(c, i);
+				int j = i;
+				while(order[j] != i) {
+					int next = order[j];
+					save(c, j, load(c, next));
+					order[j] = ~next;
+					j = next;
+				}
+				save(c, j, saved);
+				order[j] = ~i;
+			}
+			for(int i = 0; i < size; i++)
+				if(order[i] < 0)
+					order[i] = ~order[i];
+		}
+		for(int i = 0; i < size; i++)
+			sparse[slots[i]] = i + 1;
+	}
+
+	/**
+	 * Returns the number of components in this pool.
+	 */
+	public final int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Returns true if this pool has no components.
+	 */
+	public final boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	/**
+	 * Remove all components.
+	 */
+	public void clear()
+	{
+		for(int i = 0; i < size; i++)
+			sparse[slots[i]] = 0;
+		size = 0;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "OffHeapPool[type=" + type.getName() + ", fields=" + Arrays.toString(names) + ", size=" + size + "]";
+	}
+
+	/**
+	 * Copy fields of <code>component</code> to position <code>index</code>.
+	 */
+	public void store(int index, Component component)
+	{
+		for(int i = 0; i < columns.length; i++) {
+			ByteBuffer column = columns[i];
+			int offset = index * widths[i];
+			Class<?> kind = kinds[i];
+			VarHandle handle = handles[i];
+			if(kind == float.class)        column.putFloat(offset, (float) handle.get(component));
+			else if(kind == int.class)     column.putInt(offset, (int) handle.get(component));
+			else if(kind == double.class)  column.putDouble(offset, (double) handle.get(component));
+			else if(kind == long.class)    column.putLong(offset, (long) handle.get(component));
+			else if(kind == short.class)   column.putShort(offset, (short) handle.get(component));
+			else if(kind == char.class)    column.putChar(offset, (char) handle.get(component));
+			else if(kind == byte.class)    column.put(offset, (byte) handle.get(component));
+			else                           column.put(offset, (byte) ((boolean) handle.get(component) ? 1 : 0));
+		}
+	}
+
+	/**
+	 * Return raw value of <code>column</code> in position <code>index</code>, column -1 is the slot.
+	 */
+	private long load(int column, int index)
+	{
+		if(column < 0)
+			return slots[index];
+		ByteBuffer values = columns[column];
+		switch(widths[column]) {
+			case 8:  return values.getLong(index << 3);
+			case 4:  return values.getInt(index << 2);
+			case 2:  return values.getShort(index << 1);
+			default: return values.get(index);
+		}
+	}
+
+	/**
+	 * Store raw <code>value</code> of <code>column</code> to position <code>index</code>, column -1 is the slot.
+	 */
+	private void save(int column, int index, long value)
+	{
+		if(column < 0) {
+			slots[index] = (int) value;
+			return;
+		}
+		ByteBuffer values = columns[column];
+		switch(widths[column]) {
+			case 8:  values.putLong(index << 3, value); break;
+			case 4:  values.putInt(index << 2, (int) value); break;
+			case 2:  values.putShort(index << 1, (short) value); break;
+			default: values.put(index, (byte) value);
+		}
+	}
+
+	/**
+	 * Return new component object created by constructor without arguments.
+	 */
+	@SuppressWarnings("unchecked")
+	private Component instance()
+	{
+		try {
+			return (Component) constructor.invoke();
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static ByteBuffer allocate(int bytes)
+	{
+		return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+	}
+
+	private static int width(Class<?> kind)
+	{
+		return kind == double.class || kind == long.class ? 8 :
+			   kind == float.class || kind == int.class   ? 4 :
+			   kind == short.class || kind == char.class  ? 2 : 1;
+	}
+}
@@ -0,0 +1,185 @@
+package com.kenny.jecs.collection;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * {@link ComponentStorage} that keeps each component type in its own {@link ComponentPool}, indexed by
+ * type identifier. Pools are created on first emplace of their type.
+ *
+ * @param <Component> - Component type stored by this storage.
+ */
+public class PoolStorage<Component> implements ComponentStorage<Component>
+{
+	/**Set of entities that owns the slots of pools.*/
+	private final EntitySet owner;
+	/**Maps the class of component to its type identifier.*/
+	private final ToIntFunction<Class<?>> typeOf;
+	/**Pools indexed by type identifier.*/
+	private ComponentPool<Component>[] pools = newPools(16);
+
+	/**
+	 * @param owner - Set of entities that owns the slots.
+	 * @param typeOf - Maps the class of component to its type identifier.
+	 */
+	public PoolStorage(EntitySet owner, ToIntFunction<Class<?>> typeOf)
+	{
+		this.owner = owner;
+		this.typeOf = typeOf;
+	}
+
+	/**
+	 * Return the pool of components of <code>type</code>, or null if no one component of this type was
+	 * emplaced yet.
+	 */
+	public final ComponentPool<Component> pool(int type)
+	{
+		return type < pools.length ? pools[type] : null;
+	}
+
+	/**
+	 * Return the pool of components of <code>type</code>, if it not exist its will be created.
+	 */
+	public final ComponentPool<Component> assure(int type)
+	{
+		if(type >= pools.length)
+			pools = Arrays.copyOf(pools, Math.max(pools.length << 1, type + 1));
+
+		ComponentPool<Component> pool = pools[type];
+		if(pool == null)
+			pools[type] = pool = new ComponentPool<Component>(owner);
+		return pool;
+	}
+
+	@Override
+	public boolean contains(int slot, int type)
+	{
+		ComponentPool<Component> pool = pool(type);
+		return pool != null && pool.contains(slot);
+	}
+
+	@Override
+	public Component get(int slot, int type)
+	{
+		ComponentPool<Component> pool = pool(type);
+		return pool != null ? pool.get(slot) : null;
+	}
+
+	@Override
+	public void emplace(int slot, int type, Component component)
+	{
+		assure(type).emplace(slot, component);
+	}
+
+	@Override
+	public Component replace(int slot, int type, Component component)
+	{
+		ComponentPool<Component> pool = pool(type);
+		return pool != null ? pool.replace(slot, component) : null;
+	}
+
+	@Override
+	public Component remove(int slot, int type)
+	{
+		ComponentPool<Component> pool = pool(type);
+		return pool != null ? pool.remove(slot) : null;
+	}
+
+	@Override
+	public void destroy(int slot, List<?> components)
+	{
+		for(int i = components.size() - 1; i >= 0; i--)
+			remove(slot, typeOf.applyAsInt(components.get(i).getClass()));
+	}
+
+	@Override
+	public int slotOf(int type, Object component)
+	{
+		ComponentPool<Component> pool = pool(type);
+		int index = pool != null ? pool.indexOf(component) : -1;
+		return index != -1 ? pool.slot(index) : -1;
+	}
+
+	@Override
+	public void each(int[] types, int[] excludes, IntConsumer action)
+	{
+		if(types.length == 0)
+			return;
+
+		// Walk the first pool and check the others, if one of them doesn't exist no one entity has all types.
+		ComponentPool<Component> first = pool(types[0]);
+		if(first == null)
+			return;
+		for(int i = 1; i < types.length; i++)
+			if(pool(types[i]) == null)
+				return;
+
+		for(int index = first.size() - 1; index >= 0; index = Math.min(index, first.size()) - 1) {
+			int slot = first.slot(index);
+			boolean all = true;
+			for(int i = 1; i < types.length && all; i++)
+				all = pools[types[i]].contains(slot);
+			for(int i = 0; i < excludes.length && all; i++)
+				all = !contains(slot, excludes[i]);
+			if(all)
+				action.accept(slot);
+		}
+	}
+
+	@Override
+	public void each(int type, ObjIntConsumer<Component> action)
+	{
+		ComponentPool<Component> pool = pool(type);
+		if(pool == null)
+			return;
+
+		for(int index = pool.size() - 1; index >= 0; index = Math.min(index, pool.size()) - 1)
+			action.accept(pool.component(index), pool.slot(index));
+	}
+
+	@Override
+	public int size(int type)
+	{
+		ComponentPool<Component> pool = pool(type);
+		return pool != null ? pool.size() : 0;
+	}
+
+	@Override
+	public void sort(int type, ToLongFunction<? super Component> key, RadixSort sort)
+	{
+		ComponentPool<Component> pool = pool(type);
+		if(pool != null)
+			pool.sort(key, sort);
+	}
+
+	@Override
+	public int slotAt(int type, int index)
+	{
+		ComponentPool<Component> pool = pool(type);
+		return pool != null && index >= 0 && index < pool.size() ? pool.slot(index) : -1;
+	}
+
+	@Override
+	public void clear()
+	{
+		for(var pool : pools)
+			if(pool != null)
+				pool.clear();
+	}
+
+	@Override
+	public String toString()
+	{
+		return Arrays.toString(pools);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <Component> ComponentPool<Component>[] newPools(int capacity)
+	{
+		return (ComponentPool<Component>[]) new ComponentPool<?>[capacity];
+	}
+}
@@ -0,0 +1,149 @@
+package com.kenny.jecs.collection;
+
+import java.util.Arrays;
+
+/**
+ * Stable LSD radix sort of positions by primitive keys. Keys are extracted once into a <code>long</code>
+ * array and compared as unsigned numbers, {@link #key(int)}, {@link #key(long)} and {@link #key(double)}
+ * map signed values so their unsigned order is the natural one. The result is the order of positions, it's
+ * applied by the storage to its dense arrays, so elements are moved once and never compared.
+ * <p>
+ * Keys are sorted by 8 bit digits, digits that are the same for all keys (like high bytes of
+ * <code>int</code> keys) are skipped, so <code>int</code> keys take at most 4 passes. Buffers are kept
+ * between sorts, so sorting the same storage every frame doesn't allocate after the first time.
+ * <p>
+ * Storages sorted every frame are mostly sorted already, so the keys are first sorted by insertion sort
+ * that gives up after a few moves per key. Sorted keys take one pass and return positions in place,
+ * so the storage doesn't move anything, and only keys that are far from sorted pay for radix passes.
+ */
+public class RadixSort
+{
+	/**Sizes below it are sorted by insertion sort, radix passes cost more than they save.*/
+	private static final int INSERTION_THRESHOLD = 64;
+	/**Moves per key allowed to insertion sort before it gives up for radix sort.*/
+	private static final int INSERTION_MOVES = 4;
+	private static final int DIGITS = 8;
+	private static final int RADIX = 256;
+
+	/**Key of each position.*/
+	private long[] keys = new long[0];
+	/**Sorted positions.*/
+	private int[] order = new int[0];
+	/**Positions of the previous pass.*/
+	private int[] buffer = new int[0];
+	/**Histogram of each digit.*/
+	private final int[] counts = new int[DIGITS * RADIX];
+
+	/**
+	 * Return the array for keys of <code>size</code> positions, it should be filled before {@link #sort(int)}.
+	 */
+	public final long[] keys(int size)
+	{
+		if(keys.length < size) {
+			keys = new long[size];
+			order = new int[size];
+			buffer = new int[size];
+		}
+		return keys;
+	}
+
+	/**
+	 * Sort positions <code>[0, size)</code> by their keys, positions with equal keys keep their order.
+	 *
+	 * @return Array where element <code>i</code> is the position that should be moved to <code>i</code>,
+	 * only first <code>size</code> elements are valid. Array is reused by the next sort.
+	 */
+	public final int[] sort(int size)
+	{
+		keys(size);
+		for(int i = 0; i < size; i++)
+			order[i] = i;
+		if(size < INSERTION_THRESHOLD) {
+			insertionSort(size, Long.MAX_VALUE);
+			return order;
+		}
+		if(insertionSort(size, (long) size * INSERTION_MOVES))
+			return order;
+		for(int i = 0; i < size; i++)
+			order[i] = i;
+
+		// Count all digits in one pass over the keys.
+		Arrays.fill(counts, 0);
+		for(int i = 0; i < size; i++) {
+			long key = keys[i];
+			for(int digit = 0; digit < DIGITS; digit++)
+				counts[(digit << 8) + (int) ((key >>> (digit << 3)) & 0xFF)]++;
+		}
+
+		int[] from = order, to = buffer;
+		for(int digit = 0; digit < DIGITS; digit++) {
+			int base = digit << 8;
+			int shift = digit << 3;
+			if(counts[base + (int) ((keys[0] >>> shift) & 0xFF)] == size)
+				continue;
+
+			int offset = 0;
+			for(int i = 0; i < RADIX; i++) {
+				int count = counts[base + i];
+				counts[base + i] = offset;
+				offset += count;
+			}
+			for(int i = 0; i < size; i++) {
+				int position = from[i];
+				to[counts[base + (int) ((keys[position] >>> shift) & 0xFF)]++] = position;
+			}
+			int[] swap = from;
+			from = to;
+			to = swap;
+		}
+		order = from;
+		buffer = to;
+		return order;
+	}
+
+	/**
+	 * Return the key of <code>value</code>, unsigned order of keys is the signed order of values.
+	 */
+	public static long key(int value)
+	{
+		return (value ^ Integer.MIN_VALUE) & 0xFFFFFFFFL;
+	}
+
+	/**
+	 * Return the key of <code>value</code>, unsigned order of keys is the signed order of values.
+	 */
+	public static long key(long value)
+	{
+		return value ^ Long.MIN_VALUE;
+	}
+
+	/**
+	 * Return the key of <code>value</code>, unsigned order of keys is the order of values, negative zero
+	 * goes before positive zero and NaN goes last, like in {@link Double#compare(double, double)}.
+	 */
+	public static long key(double value)
+	{
+		long bits = Double.doubleToLongBits(value);
+		return bits ^ ((bits >> 63) | Long.MIN_VALUE);
+	}
+
+	/**
+	 * Sort <code>order</code> by insertion sort, unless it needs more than <code>moves</code> moves.
+	 *
+	 * @return True if order is sorted, false if sort gave up and order is partially sorted.
+	 */
+	private boolean insertionSort(int size, long moves)
+	{
+		for(int i = 1; i < size; i++) {
+			int position = order[i];
+			long key = keys[position];
+			int j = i - 1;
+			for(; j >= 0 && Long.compareUnsigned(keys[order[j]], key) > 0; j--)
+				order[j + 1] = order[j];
+			order[j + 1] = position;
+			if((moves -= i - 1 - j) < 0)
+				return false;
+		}
+		return true;
+	}
+}
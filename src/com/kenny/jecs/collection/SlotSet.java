@@ -0,0 +1,126 @@
+package com.kenny.jecs.collection;
+
+import java.util.Arrays;
+
+/**
+ * Sparse set of entity slots without any payload. Used by groups and views to keep their entities between
+ * calls, so membership changes are constant time and iteration is a walk over a single packed array.
+ * <p>
+ * Removal uses swap-and-pop, so the order of slots is not stable when slots are removed.
+ */
+public class SlotSet
+{
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/**Position+1 in packed array of each slot, 0 means that slot is not in the set.*/
+	private int[] sparse = new int[DEFAULT_CAPACITY];
+	/**Packed slots.*/
+	private int[] slots = new int[DEFAULT_CAPACITY];
+	/**Number of slots in the set.*/
+	private int size = 0;
+
+	/**
+	 * Return true if <code>slot</code> is in the set.
+	 */
+	public final boolean contains(int slot)
+	{
+		return slot >= 0 && slot < sparse.length && sparse[slot] != 0;
+	}
+
+	/**
+	 * Return the position of <code>slot</code> in packed array, or -1 if it is not in the set.
+	 */
+	public final int index(int slot)
+	{
+		return contains(slot) ? sparse[slot] - 1 : -1;
+	}
+
+	/**
+	 * Return the slot in position <code>index</code>.
+	 */
+	public final int get(int index)
+	{
+		return slots[index];
+	}
+
+	/**
+	 * Add the <code>slot</code> to the end of the set, if it's not in the set yet.
+	 *
+	 * @return True if slot was added.
+	 */
+	public final boolean add(int slot)
+	{
+		if(contains(slot))
+			return false;
+		if(slot >= sparse.length)
+			sparse = Arrays.copyOf(sparse, Math.max(sparse.length << 1, slot + 1));
+		if(size == slots.length)
+			slots = Arrays.copyOf(slots, size << 1);
+
+		slots[size] = slot;
+		sparse[slot] = ++size;
+		return true;
+	}
+
+	/**
+	 * Remove the <code>slot</code>, the last slot is moved to its place.
+	 *
+	 * @return True if slot was in the set.
+	 */
+	public final boolean remove(int slot)
+	{
+		int index = index(slot);
+		if(index == -1)
+			return false;
+
+		int last = slots[--size];
+		slots[index] = last;
+		sparse[last] = index + 1;
+		sparse[slot] = 0;
+		return true;
+	}
+
+	/**
+	 * Swap the slots in positions <code>a</code> and <code>b</code>.
+	 */
+	public final void swap(int a, int b)
+	{
+		int slotA = slots[a], slotB = slots[b];
+		slots[a] = slotB;
+		slots[b] = slotA;
+		sparse[slotA] = b + 1;
+		sparse[slotB] = a + 1;
+	}
+
+	/**
+	 * Returns the number of slots in the set.
+	 */
+	public final int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Returns true if the set has no slots.
+	 */
+	public final boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	/**
+	 * Remove all slots.
+	 */
+	public final void clear()
+	{
+		for(int i = 0; i < size; i++)
+			sparse[slots[i]] = 0;
+		size = 0;
+	}
+
+	@Override
+	public String toString()
+	{
+		return Arrays.toString(Arrays.copyOf(slots, size));
+	}
+}
@@ -0,0 +1,35 @@
+package com.kenny.jecs.funcs;
+
+/**
+ * Primitive version of {@link IEachC} for systems with <code>int</code> entity identifiers, used by 
+ * {@link kenny.jecs.BaseJECS.JECS#eachInt(IIntEachC)}. Entity is passed without boxing and the 
+ * lambda is called directly, without {@link EachC} wrapper.
+ */
+@FunctionalInterface
+@IIntEachC.JECSApi(since = "0.2.0")
+public interface IIntEachC<Component>
+{
+	/**
+	 * Recognizes the Java Entity Component system API.
+	 */
+	@java.lang.annotation.Target({java.lang.annotation.ElementType.TYPE, java.lang.annotation.ElementType.METHOD})
+	public static @interface JECSApi { String since() default "";}
+	
+	/**
+	 * This method implements the {@link kenny.jecs.BaseJECS.JECS#eachInt(IIntEachC)}. Like in 
+	 * {@link IEachC}, component can be of any type and should be checked before cast.
+	 * <p>
+	 * Example code:
+	 * <blockquote><pre>
+	 * system.eachInt((entity, anyComponent) -> {
+	 *    if(system.eqs(ComponentAny.class, anyComponent))
+	 *        ((ComponentAny) anyComponent).printObj(toString());
+	 * });
+	 * </blockquote></pre>
+	 * 
+	 * @param entity - Get access to current iterable valid entity from each.
+	 * @param component - Get access to current iterable component of that entity form each.
+	 */
+	@JECSApi(since = "0.2.0")
+	public void invoke(int entity, Component component);
+}
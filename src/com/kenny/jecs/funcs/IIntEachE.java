@@ -0,0 +1,32 @@
+package com.kenny.jecs.funcs;
+
+/**
+ * Primitive version of {@link IEachE} for systems with <code>int</code> entity identifiers, used by 
+ * {@link kenny.jecs.BaseJECS.JECS#eachInt(IIntEachE)}. Entity is passed without boxing and the 
+ * lambda is called directly, without {@link EachE} wrapper.
+ */
+@FunctionalInterface
+@IIntEachE.JECSApi(since = "0.2.0")
+public interface IIntEachE
+{
+	/**
+	 * Recognizes the Java Entity Component system API.
+	 */
+	@java.lang.annotation.Target({java.lang.annotation.ElementType.TYPE, java.lang.annotation.ElementType.METHOD})
+	public static @interface JECSApi { String since() default "";}
+	
+	/**
+	 * This method implements the {@link kenny.jecs.BaseJECS.JECS#eachInt(IIntEachE)}.
+	 * <p>
+	 * Example code:
+	 * <blockquote><pre>
+	 * system.eachInt((entity) -> {
+	 *     ...
+	 * });
+	 * </blockquote></pre>
+	 * 
+	 * @param entity - Get access to current iterable valid entity from each.
+	 */
+	@JECSApi(since = "0.2.0")
+	public void invoke(int entity);
+}
@@ -0,0 +1,34 @@
+package com.kenny.jecs.funcs;
+
+/**
+ * This functional interface is a listener of component lifecycle signals, connected to the sinks returned by
+ * {@link kenny.jecs.BaseJECS#onConstruct(Class)}, {@link kenny.jecs.BaseJECS#onUpdate(Class)} and
+ * {@link kenny.jecs.BaseJECS#onDestroy(Class)}. It can be created as anonymous class or lambda.
+ */
+@FunctionalInterface
+@ISignal.JECSApi(since = "0.2.0")
+public interface ISignal<EntityT, Component>
+{
+	/**
+	 * Recognizes the Java Entity Component system API.
+	 */
+	@java.lang.annotation.Target({java.lang.annotation.ElementType.TYPE, java.lang.annotation.ElementType.METHOD})
+	public static @interface JECSApi { String since() default "";}
+	
+	/**
+	 * Called when component of <code>entity</code> is emplaced, updated or going to be removed, depending on
+	 * the sink this listener is connected to.
+	 * <p>
+	 * Example code:
+	 * <blockquote><pre>
+	 * system.onConstruct(Transform.class).connect((entity, transform) -> {
+	 *     spatialIndex.insert(entity, transform.position);
+	 * });
+	 * </blockquote></pre>
+	 * 
+	 * @param entity - Entity which component is changed.
+	 * @param component - The component.
+	 */
+	@JECSApi(since = "0.2.0")
+	public void invoke(EntityT entity, Component component);
+}